@@ -0,0 +1,50 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import redempt.redlib.commandmanager.platform.InMemoryPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Installs an {@link InMemoryPlatform} so commands can be parsed, executed and tab completed without a running
+ * server, and provides a sender which has every permission and discards messages.
+ */
+public class BenchmarkServer {
+	
+	private static InMemoryPlatform platform;
+	private static CommandSender sender;
+	
+	public static synchronized InMemoryPlatform install() {
+		if (platform == null) {
+			platform = new InMemoryPlatform();
+			CommandProcessUtils.setPlatform(platform);
+			sender = platform.createSender("Benchmark", p -> true, m -> {});
+		}
+		return platform;
+	}
+	
+	public static CommandSender getSender() {
+		install();
+		return sender;
+	}
+	
+	/**
+	 * Parses a command file and binds its hooks to the given listeners without registering the commands
+	 * @param file The contents of the command file
+	 * @param listeners The listeners containing the method hooks
+	 * @param types The ArgTypes used by the commands
+	 * @return The parsed commands
+	 */
+	public static CommandCollection parse(String file, Object[] listeners, ArgType<?>... types) {
+		install();
+		CommandCollection collection = new CommandParser(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)))
+				.setArgTypes(types).parse();
+		for (Command command : collection.getCommands()) {
+			command.registerHook(command.createHookMap(listeners), null);
+		}
+		return collection;
+	}
+	
+}
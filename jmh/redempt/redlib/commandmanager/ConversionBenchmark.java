@@ -0,0 +1,68 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the exception-free primitive ArgTypes against converters which signal invalid input by throwing,
+ * for both valid and invalid input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConversionBenchmark {
+	
+	@Param({"12345", "12a45", "-3.25e2", "abc"})
+	public String input;
+	
+	private CommandSender sender;
+	private ArgType<Integer> intType;
+	private ArgType<Integer> throwingIntType;
+	private ArgType<Double> doubleType;
+	private ArgType<Double> throwingDoubleType;
+	
+	@Setup
+	public void setup() {
+		sender = BenchmarkServer.getSender();
+		intType = new PrimitiveArgType<>("int", int.class, PrimitiveArgType::parseInt);
+		throwingIntType = new ArgType<>("int", s -> Integer.parseInt(s));
+		doubleType = new PrimitiveArgType<>("double", double.class, PrimitiveArgType::parseDouble);
+		throwingDoubleType = new ArgType<>("double", s -> Double.parseDouble(s));
+	}
+	
+	@Benchmark
+	public Object convertInt() {
+		return intType.tryConvert(sender, null, input);
+	}
+	
+	@Benchmark
+	public Object convertIntThrowing() {
+		return throwingIntType.tryConvert(sender, null, input);
+	}
+	
+	@Benchmark
+	public Object convertDouble() {
+		return doubleType.tryConvert(sender, null, input);
+	}
+	
+	@Benchmark
+	public Object convertDoubleThrowing() {
+		return throwingDoubleType.tryConvert(sender, null, input);
+	}
+	
+}
@@ -0,0 +1,106 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Command.execute through a deep tree of subcommands ending in a command with arguments and flags,
+ * and through a wide tree of aliased subcommands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchBenchmark {
+	
+	@Param({"2", "8"})
+	public int depth;
+	
+	@Param({"60"})
+	public int width;
+	
+	private CommandSender sender;
+	private Command deep;
+	private Command wide;
+	private String[] deepArgs;
+	private String[] deepFlagArgs;
+	private String[] wideArgs;
+	private String[] wideInvalidArgs;
+	
+	@Setup
+	public void setup() {
+		sender = BenchmarkServer.getSender();
+		StringBuilder file = new StringBuilder("deep {\n");
+		List<String> path = new ArrayList<>();
+		for (int i = 1; i < depth; i++) {
+			file.append("level").append(i).append(",l").append(i).append(" {\n");
+			path.add("l" + i);
+		}
+		file.append("leaf int:amount string:target -v,--verbose string:--mode {\nhook leaf\n}\n");
+		file.append(String.join("", Collections.nCopies(depth, "}\n")));
+		file.append("wide {\n");
+		for (int i = 0; i < width; i++) {
+			file.append("child").append(i).append(",c").append(i).append(",sub").append(i).append(" int:amount {\nhook wide\n}\n");
+		}
+		file.append("}\n");
+		List<Command> commands = BenchmarkServer.parse(file.toString(), new Object[] {new Hooks()}).getCommands();
+		deep = commands.get(0);
+		wide = commands.get(1);
+		path.add("leaf");
+		List<String> args = new ArrayList<>(path);
+		Collections.addAll(args, "5", "Notch");
+		deepArgs = args.toArray(new String[0]);
+		Collections.addAll(args, "-v", "--mode", "fast");
+		deepFlagArgs = args.toArray(new String[0]);
+		wideArgs = new String[] {"sub" + (width - 1), "5"};
+		wideInvalidArgs = new String[] {"sub" + (width - 1), "five"};
+	}
+	
+	@Benchmark
+	public Object executeDeep() {
+		return deep.execute(sender, deepArgs, new Object[0]);
+	}
+	
+	@Benchmark
+	public Object executeDeepWithFlags() {
+		return deep.execute(sender, deepFlagArgs, new Object[0]);
+	}
+	
+	@Benchmark
+	public Object executeWide() {
+		return wide.execute(sender, wideArgs, new Object[0]);
+	}
+	
+	@Benchmark
+	public Object executeWideInvalidArgument() {
+		return wide.execute(sender, wideInvalidArgs, new Object[0]);
+	}
+	
+	public static class Hooks {
+		
+		@CommandHook("leaf")
+		public void leaf(CommandSender sender, int amount, String target, boolean verbose, String mode) {}
+		
+		@CommandHook("wide")
+		public void wide(CommandSender sender, int amount) {}
+		
+	}
+	
+}
@@ -0,0 +1,70 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import redempt.redlib.commandmanager.Command.MethodHook;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invoking a method hook through its pre-bound MethodHandle against core reflection and a direct call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HookInvokeBenchmark {
+	
+	private Hooks hooks;
+	private Method method;
+	private MethodHook methodHook;
+	private Object[] args;
+	
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		hooks = new Hooks();
+		method = Hooks.class.getMethod("give", CommandSender.class, int.class, String.class, boolean.class);
+		methodHook = new MethodHook(method, hooks);
+		args = new Object[] {BenchmarkServer.getSender(), 64, "diamond", true};
+	}
+	
+	@Benchmark
+	public Object methodHandle() throws Throwable {
+		return methodHook.invoke(args);
+	}
+	
+	@Benchmark
+	public Object reflection() throws ReflectiveOperationException {
+		return method.invoke(hooks, args);
+	}
+	
+	@Benchmark
+	public int direct() {
+		return hooks.give((CommandSender) args[0], (Integer) args[1], (String) args[2], (Boolean) args[3]);
+	}
+	
+	public static class Hooks {
+		
+		private int total;
+		
+		@CommandHook("give")
+		public int give(CommandSender sender, int amount, String item, boolean silent) {
+			total += silent ? amount : item.length();
+			return total;
+		}
+		
+	}
+	
+}
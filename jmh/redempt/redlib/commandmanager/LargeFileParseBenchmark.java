@@ -0,0 +1,74 @@
+package redempt.redlib.commandmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures CommandParser.parse on a generated command file of about 50,000 lines, either as many shallow commands
+ * or as deeply nested chains of subcommands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LargeFileParseBenchmark {
+	
+	private static final int LINES = 50000;
+	
+	@Param({"1", "8"})
+	public int depth;
+	
+	private byte[] file;
+	
+	@Setup
+	public void setup() {
+		BenchmarkServer.install();
+		StringBuilder builder = new StringBuilder();
+		int lines = 0;
+		for (int i = 0; lines < LINES; i++) {
+			builder.append("// Command ").append(i).append('\n');
+			lines++;
+			for (int level = 0; level < depth; level++) {
+				indent(builder, level).append(level == 0 ? "command" + i + ",cmd" + i : "sub" + level)
+						.append(" int:amount string:target? -s,--silent {\n");
+				indent(builder, level + 1).append("help Level ").append(level).append(" of command ").append(i).append('\n');
+				indent(builder, level + 1).append("permission bench.command").append(i).append('.').append(level).append('\n');
+				indent(builder, level + 1).append("hook hook").append(level).append('\n');
+				lines += 4;
+			}
+			for (int level = depth - 1; level >= 0; level--) {
+				indent(builder, level).append("}\n");
+				lines++;
+			}
+		}
+		file = builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static StringBuilder indent(StringBuilder builder, int level) {
+		for (int i = 0; i < level; i++) {
+			builder.append('\t');
+		}
+		return builder;
+	}
+	
+	@Benchmark
+	public CommandCollection parse() {
+		return new CommandParser(new ByteArrayInputStream(file)).parse();
+	}
+	
+}
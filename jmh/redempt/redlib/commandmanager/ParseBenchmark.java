@@ -0,0 +1,66 @@
+package redempt.redlib.commandmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures CommandParser.parse on generated command files with many commands, subcommands, flags and tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParseBenchmark {
+	
+	@Param({"100", "1000"})
+	public int commands;
+	
+	private byte[] file;
+	
+	@Setup
+	public void setup() {
+		BenchmarkServer.install();
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < commands; i++) {
+			builder.append("// Command ").append(i).append("\n");
+			builder.append("command").append(i).append(",cmd").append(i).append(" {\n");
+			builder.append("help Does something with command ").append(i).append("\n");
+			builder.append("permission bench.command").append(i).append("\n");
+			builder.append("give int:amount string:target? -s,--silent string:--reason {\n");
+			builder.append("help Gives an amount to a target\n");
+			builder.append("hook give\n");
+			builder.append("}\n");
+			builder.append("take int:amount\n{\n");
+			builder.append("hook take\n");
+			builder.append("user player\n");
+			builder.append("}\n");
+			builder.append("list string[]:names {\n");
+			builder.append("hook list\n");
+			builder.append("notab\n");
+			builder.append("}\n");
+			builder.append("}\n");
+		}
+		file = builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	@Benchmark
+	public CommandCollection parse() {
+		return new CommandParser(new ByteArrayInputStream(file)).parse();
+	}
+	
+}
@@ -0,0 +1,124 @@
+package redempt.redlib.commandmanager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import redempt.redlib.commandmanager.processing.ArgTokenizer;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+import redempt.redlib.commandmanager.processing.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares CommandProcessUtils.splitArgs and ArgTokenizer against the StringBuilder-based splitter they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SplitArgsBenchmark {
+	
+	@Param({"simple", "quoted", "long"})
+	public String input;
+	
+	private String line;
+	private String[] args;
+	private ArgTokenizer reused = new ArgTokenizer();
+	
+	@Setup
+	public void setup() {
+		switch (input) {
+			case "simple":
+				line = "give Notch diamond_sword 64";
+				break;
+			case "quoted":
+				line = "mail send Notch \"hello there, how are you\" \"with an \\\"escaped\\\" quote\" -p";
+				break;
+			case "long":
+				StringBuilder builder = new StringBuilder("broadcast");
+				for (int i = 0; i < 50; i++) {
+					builder.append(i % 5 == 0 ? " \"quoted word " : " word").append(i).append(i % 5 == 0 ? "\"" : "");
+				}
+				line = builder.toString();
+				break;
+		}
+		args = line.split(" ");
+	}
+	
+	@Benchmark
+	public Object splitArgs() {
+		return CommandProcessUtils.splitArgs(line);
+	}
+	
+	@Benchmark
+	public Object legacySplitArgs() {
+		return legacySplit(line);
+	}
+	
+	@Benchmark
+	public int tokenizeReused() {
+		return reused.tokenize(line).size();
+	}
+	
+	@Benchmark
+	public int tokenizeArgs() {
+		return reused.tokenize(args).size();
+	}
+	
+	@Benchmark
+	public int legacyJoinAndSplit() {
+		return legacySplit(String.join(" ", args)).getValue().length;
+	}
+	
+	private static Result<String[], Boolean[]> legacySplit(String input) {
+		List<String> args = new ArrayList<>();
+		List<Boolean> quoted = new ArrayList<>();
+		StringBuilder combine = new StringBuilder();
+		boolean quotes = false;
+		char[] chars = input.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			if (c == '\\' && i + 1 < chars.length) {
+				combine.append(chars[i + 1]);
+				i++;
+				continue;
+			}
+			if (c == '"') {
+				quotes = !quotes;
+				if (combine.length() > 0) {
+					args.add(combine.toString());
+					quoted.add(!quotes);
+					combine = new StringBuilder();
+				}
+				continue;
+			}
+			if (c == ' ' && !quotes) {
+				if (combine.length() > 0) {
+					args.add(combine.toString());
+					quoted.add(false);
+					combine = new StringBuilder();
+				}
+				continue;
+			}
+			combine.append(c);
+		}
+		if (combine.length() > 0) {
+			args.add(combine.toString());
+			quoted.add(false);
+		}
+		return new Result<>(null, args.toArray(new String[args.size()]), quoted.toArray(new Boolean[quoted.size()]));
+	}
+	
+}
@@ -0,0 +1,95 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Command.tab for subcommand names, flags, a large fixed set of values, and a computed completion list,
+ * with and without a TabCompletionCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TabBenchmark {
+	
+	@Param({"false", "true"})
+	public boolean cached;
+	
+	private CommandSender sender;
+	private Command command;
+	
+	@Setup
+	public void setup() {
+		sender = BenchmarkServer.getSender();
+		List<String> values = new ArrayList<>();
+		for (int i = 0; i < 1500; i++) {
+			values.add("VALUE_" + Integer.toString(i * 7919, 36).toUpperCase());
+		}
+		ArgType<String> fixed = ArgType.of("fixed", values.toArray(new String[0]));
+		ArgType<String> computed = new ArgType<>("computed", s -> s).setTab(c -> new ArrayList<>(values))
+				.setCompletionScope(ArgType.CompletionScope.STATIC);
+		StringBuilder file = new StringBuilder("tab {\n");
+		for (int i = 0; i < 60; i++) {
+			file.append("child").append(i).append(",c").append(i).append(" {\nhook none\n}\n");
+		}
+		file.append("fixed fixed:value -s,--silent string:--reason {\nhook fixed\n}\n");
+		file.append("computed computed:value {\nhook computed\n}\n");
+		file.append("}\n");
+		CommandCollection collection = BenchmarkServer.parse(file.toString(), new Object[] {new Hooks()}, fixed, computed);
+		if (cached) {
+			collection.setTabCache(new TabCompletionCache(60000, 1000));
+		}
+		command = collection.getCommands().get(0);
+	}
+	
+	@Benchmark
+	public List<String> tabChildren() {
+		return command.tab(sender, new String[] {"chi"});
+	}
+	
+	@Benchmark
+	public List<String> tabFlags() {
+		return command.tab(sender, new String[] {"fixed", "VALUE_1", "--"});
+	}
+	
+	@Benchmark
+	public List<String> tabFixedValues() {
+		return command.tab(sender, new String[] {"fixed", "value_1"});
+	}
+	
+	@Benchmark
+	public List<String> tabComputedValues() {
+		return command.tab(sender, new String[] {"computed", "value_1"});
+	}
+	
+	public static class Hooks {
+		
+		@CommandHook("none")
+		public void none(CommandSender sender) {}
+		
+		@CommandHook("fixed")
+		public void fixed(CommandSender sender, String value, boolean silent, String reason) {}
+		
+		@CommandHook("computed")
+		public void computed(CommandSender sender, String value) {}
+		
+	}
+	
+}
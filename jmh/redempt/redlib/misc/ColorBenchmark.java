@@ -0,0 +1,113 @@
+package redempt.redlib.misc;
+
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares FormatUtils.color and FormatUtils.colorCached against the Set and stream based implementation they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ColorBenchmark {
+	
+	@Param({"plain", "legacy", "hex", "scoreboard"})
+	public String input;
+	
+	private String line;
+	
+	@Setup
+	public void setup() {
+		switch (input) {
+			case "plain":
+				line = "Welcome to the server, enjoy your stay!";
+				break;
+			case "legacy":
+				line = "&a&lShop &8» &7You bought &e64x Diamond &7for &a$1,250";
+				break;
+			case "hex":
+				line = "&#FF5555[Admin] &#55FFFFNotch&7: &#aaaaaaHello there";
+				break;
+			case "scoreboard":
+				StringBuilder builder = new StringBuilder();
+				for (int i = 0; i < 15; i++) {
+					builder.append("&7Line ").append(i).append(": &#12AB").append(i % 10).append("F&l").append(i * 37).append(' ');
+				}
+				line = builder.toString();
+				break;
+		}
+	}
+	
+	@Benchmark
+	public String color() {
+		return FormatUtils.color(line);
+	}
+	
+	@Benchmark
+	public String colorCached() {
+		return FormatUtils.colorCached(line);
+	}
+	
+	@Benchmark
+	public String legacyColor() {
+		return legacyColor(line, true);
+	}
+	
+	private static Set<Character> colorChars = "4c6e2ab319d5f780rlonmk".chars().mapToObj(i -> (char) i).collect(Collectors.toSet());
+	
+	private static String legacyColor(String input, boolean hex) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			if (i + 1 >= input.length()) {
+				builder.append(c);
+				continue;
+			}
+			char n = input.charAt(i + 1);
+			if (c == '\\' && (n == '&' || n == '\\')) {
+				i++;
+				builder.append(n);
+				continue;
+			}
+			if (c != '&') {
+				builder.append(c);
+				continue;
+			}
+			if (colorChars.contains(n)) {
+				builder.append(ChatColor.COLOR_CHAR);
+				continue;
+			}
+			if (hex && n == '#' && i + 7 <= input.length()) {
+				String hexCode = input.substring(i + 2, i + 8).toUpperCase(Locale.ROOT);
+				if (hexCode.chars().allMatch(ch -> (ch <= '9' && ch >= '0') || (ch <= 'F' && ch >= 'A'))) {
+					hexCode = Arrays.stream(hexCode.split("")).map(s -> ChatColor.COLOR_CHAR + s).collect(Collectors.joining());
+					builder.append(ChatColor.COLOR_CHAR).append("x").append(hexCode);
+					i += 7;
+					continue;
+				}
+			}
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+	
+}
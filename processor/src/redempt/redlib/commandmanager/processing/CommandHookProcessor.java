@@ -0,0 +1,273 @@
+package redempt.redlib.commandmanager.processing;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code CommandHookTable} for every class which declares {@code @CommandHook} methods, and lists them in
+ * {@code META-INF/services/redempt.redlib.commandmanager.CommandHookTable} so they are used instead of scanning the
+ * class reflectively when commands are registered. Hooks whose first parameter is not a CommandSender, and duplicate
+ * hook names in the same class, fail the build. Private hooks, and hooks in classes the generated code could not
+ * access, are left to the reflective fallback. This processor is published separately from the command manager,
+ * so it only runs for plugins which add it to their annotation processor path.
+ */
+@SupportedAnnotationTypes(CommandHookProcessor.COMMAND_HOOK)
+public class CommandHookProcessor extends AbstractProcessor {
+	
+	static final String COMMAND_HOOK = "redempt.redlib.commandmanager.CommandHook";
+	private static final String TABLE = "redempt.redlib.commandmanager.CommandHookTable";
+	private static final String SENDER = "org.bukkit.command.CommandSender";
+	private static final String SUFFIX = "_CommandHooks";
+	
+	private Set<String> generated = new TreeSet<>();
+	private Types types;
+	private Messager messager;
+	private Filer filer;
+	
+	@Override
+	public synchronized void init(ProcessingEnvironment env) {
+		super.init(env);
+		types = env.getTypeUtils();
+		messager = env.getMessager();
+		filer = env.getFiler();
+	}
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		if (round.processingOver()) {
+			writeServices();
+			return false;
+		}
+		TypeElement hookType = processingEnv.getElementUtils().getTypeElement(COMMAND_HOOK);
+		if (hookType == null) {
+			return false;
+		}
+		Map<TypeElement, List<ExecutableElement>> classes = new LinkedHashMap<>();
+		for (Element element : round.getElementsAnnotatedWith(hookType)) {
+			if (element.getKind() == ElementKind.METHOD) {
+				classes.computeIfAbsent((TypeElement) element.getEnclosingElement(), k -> new ArrayList<>()).add((ExecutableElement) element);
+			}
+		}
+		classes.forEach(this::generate);
+		return false;
+	}
+	
+	private void generate(TypeElement clazz, List<ExecutableElement> methods) {
+		TypeElement senderType = processingEnv.getElementUtils().getTypeElement(SENDER);
+		Map<String, ExecutableElement> hooks = new LinkedHashMap<>();
+		boolean valid = true;
+		boolean accessible = isAccessible(clazz);
+		for (ExecutableElement method : methods) {
+			String name = getHookName(method);
+			List<? extends VariableElement> params = method.getParameters();
+			if (senderType != null && (params.isEmpty() || !types.isAssignable(params.get(0).asType(), senderType.asType()))) {
+				error(method, "The first argument of method hook " + method.getSimpleName() + " must be CommandSender or one of its subclasses");
+				valid = false;
+			}
+			if (hooks.put(name, method) != null) {
+				error(method, "Duplicate method hook for name '" + name + "'");
+				valid = false;
+			}
+			if (method.getModifiers().contains(Modifier.PRIVATE)) {
+				warn(method, "Method hook " + method.getSimpleName() + " is private, so " + clazz.getSimpleName() + " will be bound using reflection");
+				accessible = false;
+			}
+		}
+		if (!valid || !accessible || clazz.getModifiers().contains(Modifier.ABSTRACT)
+				|| (clazz.getKind() != ElementKind.CLASS && clazz.getKind() != ElementKind.ENUM)) {
+			return;
+		}
+		String pkg = processingEnv.getElementUtils().getPackageOf(clazz).getQualifiedName().toString();
+		String simpleName = getTableName(clazz);
+		String tableName = pkg.isEmpty() ? simpleName : pkg + "." + simpleName;
+		try (Writer writer = filer.createSourceFile(tableName, clazz).openWriter()) {
+			writer.write(createSource(clazz, pkg, simpleName, hooks));
+		} catch (IOException e) {
+			error(clazz, "Could not write command hook table: " + e.getMessage());
+			return;
+		}
+		generated.add(tableName);
+	}
+	
+	private String createSource(TypeElement clazz, String pkg, String simpleName, Map<String, ExecutableElement> hooks) {
+		String listener = types.erasure(clazz.asType()).toString();
+		StringBuilder builder = new StringBuilder();
+		if (!pkg.isEmpty()) {
+			builder.append("package ").append(pkg).append(";\n\n");
+		}
+		builder.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		builder.append("public final class ").append(simpleName).append(" implements ").append(TABLE).append(" {\n\n");
+		builder.append("\t@Override\n\tpublic Class<?> getListenerClass() {\n\t\treturn ").append(listener).append(".class;\n\t}\n\n");
+		builder.append("\t@Override\n\tpublic java.util.List<").append(TABLE).append(".Hook> getHooks() {\n");
+		builder.append("\t\treturn java.util.Arrays.asList(");
+		boolean first = true;
+		for (Map.Entry<String, ExecutableElement> entry : hooks.entrySet()) {
+			ExecutableElement method = entry.getValue();
+			List<? extends VariableElement> params = method.getParameters();
+			builder.append(first ? "\n" : ",\n");
+			first = false;
+			builder.append("\t\t\tnew ").append(TABLE).append(".Hook(").append(literal(entry.getKey())).append(", ")
+					.append(literal(method.getSimpleName().toString())).append(", ").append(isAsync(method)).append(", new Class<?>[] {");
+			for (int i = 0; i < params.size(); i++) {
+				builder.append(i == 0 ? "" : ", ").append(types.erasure(params.get(i).asType())).append(".class");
+			}
+			builder.append("},\n\t\t\t\t\t($listener, $args) -> ");
+			boolean returns = method.getReturnType().getKind() != TypeKind.VOID;
+			builder.append(returns ? "" : "{ ");
+			if (method.getModifiers().contains(Modifier.STATIC)) {
+				builder.append(listener);
+			} else {
+				builder.append("((").append(listener).append(") $listener)");
+			}
+			builder.append('.').append(method.getSimpleName()).append('(');
+			for (int i = 0; i < params.size(); i++) {
+				builder.append(i == 0 ? "" : ", ").append(cast(params.get(i).asType(), "$args[" + i + "]"));
+			}
+			builder.append(')').append(returns ? ")" : "; return null; })");
+		}
+		builder.append(");\n\t}\n\n}\n");
+		return builder.toString();
+	}
+	
+	private String cast(TypeMirror type, String arg) {
+		switch (type.getKind()) {
+			case BOOLEAN:
+				return "(Boolean) " + arg;
+			case CHAR:
+				return "(Character) " + arg;
+			case BYTE:
+			case SHORT:
+			case INT:
+			case LONG:
+			case FLOAT:
+			case DOUBLE:
+				String primitive = type.getKind().name().toLowerCase(Locale.ROOT);
+				return TABLE + ".Hook.number(" + arg + ", " + primitive + ".class)." + primitive + "Value()";
+			default:
+				return "(" + types.erasure(type) + ") " + arg;
+		}
+	}
+	
+	private void writeServices() {
+		if (generated.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + TABLE);
+			try (Writer writer = file.openWriter()) {
+				for (String name : generated) {
+					writer.write(name + "\n");
+				}
+			}
+		} catch (IOException e) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Could not write command hook services: " + e.getMessage());
+		}
+	}
+	
+	private static boolean isAccessible(TypeElement clazz) {
+		Element element = clazz;
+		while (element instanceof TypeElement) {
+			TypeElement type = (TypeElement) element;
+			if (type.getNestingKind() == NestingKind.ANONYMOUS || type.getNestingKind() == NestingKind.LOCAL
+					|| type.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			element = type.getEnclosingElement();
+		}
+		return element instanceof PackageElement;
+	}
+	
+	private static String getTableName(TypeElement clazz) {
+		StringBuilder name = new StringBuilder(clazz.getSimpleName());
+		Element element = clazz.getEnclosingElement();
+		while (element instanceof TypeElement) {
+			name.insert(0, ((TypeElement) element).getSimpleName() + "_");
+			element = element.getEnclosingElement();
+		}
+		return name.append(SUFFIX).toString();
+	}
+	
+	private static String getHookName(ExecutableElement method) {
+		return (String) getValue(method, "value", "");
+	}
+	
+	private static boolean isAsync(ExecutableElement method) {
+		return (Boolean) getValue(method, "async", false);
+	}
+	
+	private static Object getValue(ExecutableElement method, String key, Object def) {
+		for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+			if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(COMMAND_HOOK)) {
+				continue;
+			}
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+				if (entry.getKey().getSimpleName().contentEquals(key)) {
+					return entry.getValue().getValue();
+				}
+			}
+		}
+		return def;
+	}
+	
+	private static String literal(String value) {
+		StringBuilder builder = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '"':
+				case '\\':
+					builder.append('\\').append(c);
+					break;
+				case '\n':
+					builder.append("\\n");
+					break;
+				default:
+					builder.append(c);
+			}
+		}
+		return builder.append('"').toString();
+	}
+	
+	private void error(Element element, String message) {
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+	
+	private void warn(Element element, String message) {
+		messager.printMessage(Diagnostic.Kind.WARNING, message, element);
+	}
+	
+}
@@ -1,5 +1,8 @@
 package redempt.redlib.commandmanager;
 
+import org.bukkit.command.CommandSender;
+import redempt.redlib.commandmanager.processing.Result;
+
 import java.util.stream.Collectors;
 
 /**
@@ -13,6 +16,22 @@ public class ArgSubtype<T, K> extends ArgType<T> {
 		super(name, parent, convert);
 	}
 	
+	/**
+	 * Converts an argument using the value of the previous argument. Fails without calling the converter
+	 * if there is no previous value, since subtype converters always depend on it.
+	 * @param sender The sender of the command
+	 * @param previous The value of the previous argument
+	 * @param argument The argument to be converted
+	 * @return A Result whose value is the converted argument, or whose value is null and message is the reason the conversion failed
+	 */
+	@Override
+	public Result<T, String> tryConvert(CommandSender sender, Object previous, String argument) {
+		if (previous == null) {
+			return invalid();
+		}
+		return super.tryConvert(sender, previous, argument);
+	}
+	
 	/**
 	 * Sets the tab completer for this type
 	 * @param tab The function returning a List of all completions for this sender and previous argument
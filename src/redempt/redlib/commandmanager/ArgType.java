@@ -1,12 +1,16 @@
 package redempt.redlib.commandmanager;
 
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+import redempt.redlib.commandmanager.processing.PrefixIndex;
+import redempt.redlib.commandmanager.processing.Result;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -24,8 +28,8 @@ public class ArgType<T> {
 	/**
 	 * The ArgType for a Player
 	 */
-	public static ArgType<Player> playerType = new ArgType<Player>("player", s -> Bukkit.getPlayerExact(s))
-			.tabStream(c -> Bukkit.getOnlinePlayers().stream().map(Player::getName));
+	public static ArgType<Player> playerType = new ArgType<Player>("player", s -> CommandProcessUtils.getPlatform().getPlayer(s))
+			.tabStream(c -> CommandProcessUtils.getPlatform().getOnlinePlayers().stream().map(Player::getName));
 	
 	/**
 	 * Creates a ArgType for an enum, which will accept all of the enum's values as arguments and offer all enum values as tab completions
@@ -42,13 +46,11 @@ public class ArgType<T> {
 			Method getValues = clazz.getDeclaredMethod("values");
 			Object[] values = (Object[]) getValues.invoke(null);
 			List<String> strings = Arrays.stream(values).map(Object::toString).collect(Collectors.toList());
-			return new ArgType<T>(name, s -> {
-				try {
-					return (T) Enum.valueOf(clazz, s);
-				} catch (Exception e) {
-					return null;
-				}
-			}).setTab(c -> strings);
+			Map<String, T> constants = new HashMap<>();
+			for (Object value : values) {
+				constants.put(((Enum<?>) value).name(), (T) value);
+			}
+			return new ArgType<T>(name, constants::get).setTabIndex(new PrefixIndex(strings)).setCompletionScope(CompletionScope.STATIC);
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
@@ -64,7 +66,7 @@ public class ArgType<T> {
 	public static ArgType<String> of(String name, String... values) {
 		List<String> list = Arrays.stream(values).collect(Collectors.toList());
 		return new ArgType<>(name, s -> list.contains(s) ? s : null)
-				.setTab(c -> list);
+				.setTabIndex(new PrefixIndex(list)).setCompletionScope(CompletionScope.STATIC);
 	}
 	
 	/**
@@ -82,6 +84,8 @@ public class ArgType<T> {
 		return convert.convert(sender, (K) previous, str);
 	}
 	
+	private static final Result<?, String> invalid = new Result<>(null, null, "Argument could not be converted");
+	
 	private static <T> List<String> tabCast(TabCompleter<T> tab, CommandSender sender, String[] args, Object prev) {
 		return tab.tabComplete(sender, args, (T) prev);
 	}
@@ -89,6 +93,8 @@ public class ArgType<T> {
 	private ArgConverter<T, ?> convert;
 	private ArgType<?> parent;
 	private TabCompleter<?> tab = null;
+	private PrefixIndex tabIndex = null;
+	private CompletionScope completionScope = CompletionScope.VOLATILE;
 	private String name;
 	
 	protected ArgType(String name, ArgType<?> parent, ArgConverter<T, ?> convert) {
@@ -132,6 +138,7 @@ public class ArgType<T> {
 	 */
 	public ArgType<T> setTab(Function<CommandSender, List<String>> tab) {
 		this.tab = (c, s, o) -> tab.apply(c);
+		tabIndex = null;
 		return this;
 	}
 	
@@ -142,11 +149,29 @@ public class ArgType<T> {
 	 */
 	public ArgType<T> setTab(BiFunction<CommandSender, String[], List<String>> tab) {
 		this.tab = (c, s, o) -> tab.apply(c, s);
+		tabIndex = null;
 		return this;
 	}
 	
+	/**
+	 * Sets the tab completer for this type to offer a fixed set of completions, which will be indexed
+	 * so that completions matching what the sender has typed can be found without checking every value
+	 * @param completions The completions to offer for this type
+	 * @return itself
+	 */
+	public ArgType<T> setTab(Collection<String> completions) {
+		return setTabIndex(new PrefixIndex(completions));
+	}
+	
 	protected ArgType<T> setTab(TabCompleter<?> tab) {
 		this.tab = tab;
+		tabIndex = null;
+		return this;
+	}
+	
+	protected ArgType<T> setTabIndex(PrefixIndex index) {
+		this.tab = (c, s, o) -> index.getValues();
+		tabIndex = index;
 		return this;
 	}
 	
@@ -157,6 +182,7 @@ public class ArgType<T> {
 	 */
 	public ArgType<T> tabStream(Function<CommandSender, Stream<String>> tab) {
 		this.tab = (c, s, o) -> tab.apply(c).collect(Collectors.toList());
+		tabIndex = null;
 		return this;
 	}
 	
@@ -167,9 +193,28 @@ public class ArgType<T> {
 	 */
 	public ArgType<T> tabStream(BiFunction<CommandSender, String[], Stream<String>> tab) {
 		this.tab = (c, s, o) -> tab.apply(c, s).collect(Collectors.toList());
+		tabIndex = null;
+		return this;
+	}
+	
+	/**
+	 * Declares what the completions of this type depend on, which determines whether and how they can be cached
+	 * by a {@link TabCompletionCache}. Defaults to {@link CompletionScope#VOLATILE}.
+	 * @param scope The scope of this type's completions
+	 * @return itself
+	 */
+	public ArgType<T> setCompletionScope(CompletionScope scope) {
+		this.completionScope = scope;
 		return this;
 	}
 	
+	/**
+	 * @return What the completions of this type depend on
+	 */
+	public CompletionScope getCompletionScope() {
+		return completionScope;
+	}
+	
 	protected List<String> tabComplete(CommandSender sender, String[] args, Object prev) {
 		if (tab == null || prev == null && parent != null) {
 			return new ArrayList<>();
@@ -181,6 +226,28 @@ public class ArgType<T> {
 		return values;
 	}
 	
+	/**
+	 * Gets the tab completions of this type which start with what the sender has typed, ignoring case
+	 * @param sender The sender tab completing
+	 * @param args The arguments typed so far
+	 * @param prev The value of the previous argument
+	 * @param prefix The partial argument being completed
+	 * @return The matching completions
+	 */
+	protected List<String> tabComplete(CommandSender sender, String[] args, Object prev, String prefix) {
+		if (tabIndex != null && (prev != null || parent == null)) {
+			return tabIndex.complete(prefix);
+		}
+		return CommandProcessUtils.filterByPrefix(tabComplete(sender, args, prev), prefix);
+	}
+	
+	/**
+	 * @return Whether this type's completions come from a prefix index, making them cheap to find without caching
+	 */
+	protected boolean isTabIndexed() {
+		return tabIndex != null;
+	}
+	
 	/**
 	 * @return The name of this argument type
 	 */
@@ -193,10 +260,36 @@ public class ArgType<T> {
 	 * @param sender The sender of the command
 	 * @param previous The value of the previous argument
 	 * @param argument The argument to be converted
-	 * @return The converted argument for use in a method hook
+	 * @return The converted argument for use in a method hook, or null if it could not be converted
 	 */
 	public T convert(CommandSender sender, Object previous, String argument) {
-		return convertCast(convert, sender, previous, argument);
+		return tryConvert(sender, previous, argument).getValue();
+	}
+	
+	/**
+	 * Converts an argument to another type, reporting failure through the returned Result instead of
+	 * throwing. Any exception thrown by the converter is treated as a failed conversion.
+	 * @param sender The sender of the command
+	 * @param previous The value of the previous argument
+	 * @param argument The argument to be converted
+	 * @return A Result whose value is the converted argument, or whose value is null and message is the reason the conversion failed
+	 */
+	public Result<T, String> tryConvert(CommandSender sender, Object previous, String argument) {
+		T value;
+		try {
+			value = convertCast(convert, sender, previous, argument);
+		} catch (Exception e) {
+			return new Result<>(null, null, e.toString());
+		}
+		return value == null ? invalid() : new Result<>(null, value, null);
+	}
+	
+	/**
+	 * @param <T> The type of the Result
+	 * @return The shared Result representing a failed conversion with no further detail
+	 */
+	protected static <T> Result<T, String> invalid() {
+		return (Result<T, String>) invalid;
 	}
 	
 	/**
@@ -213,7 +306,7 @@ public class ArgType<T> {
 				return null;
 			}
 			return func.apply(obj);
-		}).setTab(tab);
+		}).setTab(tab).setTabIndexOf(this).setCompletionScope(completionScope);
 	}
 	
 	/**
@@ -230,7 +323,12 @@ public class ArgType<T> {
 				return null;
 			}
 			return func.apply(c, obj);
-		}).setTab(tab);
+		}).setTab(tab).setTabIndexOf(this).setCompletionScope(completionScope);
+	}
+	
+	private ArgType<T> setTabIndexOf(ArgType<?> type) {
+		tabIndex = type.tabIndex;
+		return this;
 	}
 	
 	/**
@@ -259,6 +357,26 @@ public class ArgType<T> {
 		return new ArgSubtype<>(name, this, convert);
 	}
 	
+	/**
+	 * Describes what the tab completions of an ArgType depend on
+	 */
+	public static enum CompletionScope {
+		
+		/**
+		 * Completions only depend on the previous argument, if this is an {@link ArgSubtype}
+		 */
+		STATIC,
+		/**
+		 * Completions also depend on the sender
+		 */
+		PER_SENDER,
+		/**
+		 * Completions may change at any time, and are never cached
+		 */
+		VOLATILE;
+		
+	}
+	
 	public static interface ArgConverter<T, K> {
 		
 		public T convert(CommandSender sender, K previous, String str);
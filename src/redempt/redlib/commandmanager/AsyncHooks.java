@@ -0,0 +1,86 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.platform.CommandPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Utilities for method hooks which run asynchronously, either because their command has the {@code async} tag
+ * or because their {@link CommandHook} is marked async. Arguments are converted on the calling thread, then the
+ * hook is invoked on an executor. Since most of the Bukkit API must only be used from the main thread, async hooks
+ * can use {@link #sync(Plugin, Runnable)} and {@link #sync(Plugin, Supplier)} to hop back to it.
+ */
+public class AsyncHooks {
+	
+	private static ExecutorService defaultExecutor;
+	
+	/**
+	 * Gets the executor used for async method hooks when none is set on the CommandCollection. This uses
+	 * a virtual thread per hook where the JVM supports them, otherwise a cached pool of daemon threads.
+	 * @return The default executor for async method hooks
+	 */
+	public static synchronized ExecutorService getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = createDefaultExecutor();
+		}
+		return defaultExecutor;
+	}
+	
+	private static ExecutorService createDefaultExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "RedCommands-Hook-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Runs a task on the main thread. If called from the main thread, the task is run immediately.
+	 * @param plugin The plugin to schedule the task for
+	 * @param task The task to run
+	 * @return A future which will be completed once the task has run
+	 */
+	public static CompletableFuture<Void> sync(Plugin plugin, Runnable task) {
+		return sync(plugin, () -> {
+			task.run();
+			return null;
+		});
+	}
+	
+	/**
+	 * Computes a value on the main thread. If called from the main thread, the value is computed immediately.
+	 * @param plugin The plugin to schedule the task for
+	 * @param supplier The supplier to compute the value with
+	 * @param <T> The type of the value
+	 * @return A future which will be completed with the value, or exceptionally if the supplier throws
+	 */
+	public static <T> CompletableFuture<T> sync(Plugin plugin, Supplier<T> supplier) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		Runnable task = () -> {
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		};
+		CommandPlatform platform = CommandProcessUtils.getPlatform();
+		if (platform.isPrimaryThread()) {
+			task.run();
+		} else {
+			platform.runSync(plugin, task);
+		}
+		return future;
+	}
+	
+}
@@ -0,0 +1,157 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.platform.BukkitPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes commands compute their tab completions off the main thread on servers which fire Paper's
+ * AsyncTabCompleteEvent, by way of {@link redempt.redlib.commandmanager.platform.CommandPlatform#listenAsyncTab}.
+ * Completions are computed directly on the thread delivering the event, which is already off the main thread, so a
+ * slow completer only delays the completions of the sender who asked for them. Otherwise, completions are computed
+ * on the main thread as usual. Use {@link CommandCollection#setAsyncTab(AsyncTabCompletion)} to enable it. Any
+ * ArgType tab completers used by the commands must be safe to call from another thread.
+ * <p>
+ * The executor and deadline are not used for completions delivered through the event. They back
+ * {@link #complete(Supplier)} and {@link #await(Future)}, for plugins which compute completions of their own on a
+ * bounded pool and want to give up on them after a deadline.
+ */
+public class AsyncTabCompletion {
+	
+	/**
+	 * @return Whether the server supports delivering tab completions asynchronously
+	 */
+	public static boolean isAsyncEventSupported() {
+		return BukkitPlatform.isAsyncTabEventSupported();
+	}
+	
+	private ExecutorService executor;
+	private long deadline;
+	
+	/**
+	 * Creates an AsyncTabCompletion with its own bounded thread pool for {@link #complete(Supplier)}. Completion
+	 * requests beyond the capacity of the queue are rejected and offer no completions.
+	 * @param threads The maximum number of threads to run completions on
+	 * @param queueSize The maximum number of completion requests waiting for a thread
+	 * @param deadlineMillis How long to wait for completions before giving up, in milliseconds
+	 */
+	public AsyncTabCompletion(int threads, int queueSize, long deadlineMillis) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+			Thread thread = new Thread(r, "RedCommands-Tab-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+		this.deadline = deadlineMillis;
+	}
+	
+	/**
+	 * Creates an AsyncTabCompletion which runs completers passed to {@link #complete(Supplier)} on the given executor
+	 * @param executor The executor to run completers on. Should be bounded.
+	 * @param deadlineMillis How long to wait for completions before giving up, in milliseconds
+	 */
+	public AsyncTabCompletion(ExecutorService executor, long deadlineMillis) {
+		this.executor = executor;
+		this.deadline = deadlineMillis;
+	}
+	
+	/**
+	 * Runs a completer on the executor
+	 * @param completer The completer to run
+	 * @return A future which will be completed with the completions, or with an empty list if the executor is full.
+	 * Cancelling it interrupts the completer if it is running.
+	 */
+	public Future<List<String>> complete(Supplier<List<String>> completer) {
+		FutureTask<List<String>> task = new FutureTask<>(completer::get);
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.completedFuture(new ArrayList<>());
+		}
+		return task;
+	}
+	
+	/**
+	 * Waits for completions until the deadline, interrupting the completer if it is not done by then
+	 * @param future The future completions
+	 * @return The completions, or an empty list if they were not ready before the deadline or the completer failed
+	 */
+	public List<String> await(Future<List<String>> future) {
+		try {
+			return future.get(deadline, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+		} catch (ExecutionException e) {
+			e.getCause().printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return new ArrayList<>();
+	}
+	
+	/**
+	 * @return The deadline for completions, in milliseconds
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+	
+	/**
+	 * Shuts down the executor used by this AsyncTabCompletion
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	protected void listen(Plugin plugin, String prefix, String[] names, BiFunction<CommandSender, String[], List<String>> completer) {
+		listen(plugin, prefix, label -> Arrays.stream(names).anyMatch(label::equalsIgnoreCase) ? completer : null);
+	}
+	
+	/**
+	 * Completes every label of a plugin with a single listener, rather than one listener per command
+	 * @param plugin The plugin which owns the commands
+	 * @param prefix The fallback prefix of the commands
+	 * @param completers Gets the completer for a label without its prefix, or null if the label is not handled
+	 */
+	protected void listen(Plugin plugin, String prefix, Function<String, BiFunction<CommandSender, String[], List<String>>> completers) {
+		CommandProcessUtils.getPlatform().listenAsyncTab(plugin, (sender, buffer) -> {
+			int space = buffer.indexOf(' ');
+			String label = space == -1 ? null : stripPrefix(buffer.substring(0, space), prefix);
+			BiFunction<CommandSender, String[], List<String>> completer = label == null ? null : completers.apply(label);
+			if (completer == null) {
+				return null;
+			}
+			return completer.apply(sender, buffer.substring(space + 1).split(" ", -1));
+		});
+	}
+	
+	private static String stripPrefix(String label, String prefix) {
+		int colon = label.indexOf(':');
+		if (colon == -1) {
+			return label;
+		}
+		return label.substring(0, colon).equalsIgnoreCase(prefix) ? label.substring(colon + 1) : null;
+	}
+	
+}
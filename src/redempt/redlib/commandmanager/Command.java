@@ -1,21 +1,28 @@
 package redempt.redlib.commandmanager;
 
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
-import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.ArgType.CompletionScope;
 import redempt.redlib.commandmanager.exceptions.CommandHookException;
+import redempt.redlib.commandmanager.platform.CommandPlatform;
+import redempt.redlib.commandmanager.processing.ArgTokenizer;
 import redempt.redlib.commandmanager.processing.CommandArgument;
 import redempt.redlib.commandmanager.processing.CommandProcessUtils;
 import redempt.redlib.commandmanager.processing.Flag;
 import redempt.redlib.commandmanager.processing.Result;
-import redempt.redlib.commandmanager.processing.UnregisterListener;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
@@ -25,24 +32,30 @@ import java.util.stream.Collectors;
  */
 public class Command {
 	
-	private static List<ArgType<?>> types = CommandProcessUtils.getBaseArgTypes();
-	private static SimpleCommandMap commandMap = CommandProcessUtils.getCommandMap();
-	private static Map<String, org.bukkit.command.Command> knownCommands = CommandProcessUtils.getKnownCommands(commandMap);
+	private static final Command[] noCommands = new Command[0];
 	
 	protected List<Command> children = new ArrayList<>();
+	private Map<String, Command[]> childIndex = Collections.emptyMap();
+	private Map<String, Command[]> postArgChildIndex = Collections.emptyMap();
 	protected Plugin plugin;
 	private CommandArgument[] args;
 	private Flag[] flags;
+	private Map<String, Flag> flagIndex = new HashMap<>();
 	private Map<Character, Flag> charBoolFlags = new HashMap<>();
 	private ContextProvider<?>[] contextProviders;
 	private ContextProvider<?>[] asserters;
+	private int optionalArgs;
+	private Class<?> takeAllType;
+	// Slot layout of the hook arguments, computed once the command tree is complete
+	private int prependLength = -1;
+	private int argOffset;
+	private int outputSize;
 	protected String[] names;
 	private String permission;
 	private SenderType type;
 	protected String hook;
-	private Method methodHook;
+	private MethodHook methodHook;
 	protected String help;
-	private Object listener;
 	private boolean noTab = false;
 	protected boolean topLevel = false;
 	protected Command parent = null;
@@ -50,17 +63,32 @@ public class Command {
 	private boolean noHelp = false;
 	private boolean postArg = false;
 	private boolean hasPostArgChild = false;
+	private boolean async = false;
+	private Executor hookExecutor;
+	private CommandMetrics metrics;
+	private String metricsKey;
+	private volatile HelpCache helpCache;
+	private TabCompletionCache tabCache;
+	protected AsyncTabCompletion asyncTab;
 	
 	protected Command() {}
 	
 	protected Command(String[] names, CommandArgument[] args, Flag[] flags, ContextProvider<?>[] providers,
 	                  ContextProvider<?>[] asserters, String help, String permission, SenderType type, String hook,
-	                  List<Command> children, boolean hideSub, boolean noTab, boolean noHelp, boolean postArg) {
+	                  List<Command> children, boolean hideSub, boolean noTab, boolean noHelp, boolean postArg, boolean async) {
 		this.names = names;
 		this.args = args;
+		for (CommandArgument arg : args) {
+			if (arg.isOptional()) {
+				optionalArgs++;
+			}
+		}
 		this.flags = flags;
 		for (Flag flag : flags) {
-			if (!flag.getType().getName().equals("boolean")) {
+			for (String name : flag.getNames()) {
+				flagIndex.putIfAbsent(name, flag);
+			}
+			if (!flag.isBoolean()) {
 				continue;
 			}
 			for (String name : flag.getNames()) {
@@ -83,6 +111,7 @@ public class Command {
 		this.noTab = noTab;
 		this.noHelp = noHelp;
 		this.postArg = postArg;
+		this.async = async;
 		this.children = children;
 		for (Command command : children) {
 			command.parent = this;
@@ -101,6 +130,34 @@ public class Command {
 			}
 		}
 		hasPostArgChild = children.stream().anyMatch(c -> c.postArg);
+		indexChildren();
+	}
+	
+	/**
+	 * Builds the lookup from each alias to the children using it, so subcommands can be
+	 * resolved without scanning every child. Must be called whenever the children change.
+	 */
+	protected void indexChildren() {
+		childIndex = indexByName(children, false);
+		postArgChildIndex = indexByName(children, true);
+	}
+	
+	private static Map<String, Command[]> indexByName(List<Command> commands, boolean postArg) {
+		Map<String, List<Command>> grouped = new HashMap<>();
+		for (Command command : commands) {
+			if (command.postArg != postArg) {
+				continue;
+			}
+			for (String name : command.names) {
+				List<Command> list = grouped.computeIfAbsent(name, k -> new ArrayList<>());
+				if (!list.contains(command)) {
+					list.add(command);
+				}
+			}
+		}
+		Map<String, Command[]> index = new HashMap<>();
+		grouped.forEach((k, v) -> index.put(k, v.toArray(new Command[0])));
+		return Collections.unmodifiableMap(index);
 	}
 	
 	/**
@@ -110,33 +167,60 @@ public class Command {
 	 * @return True if the help was shown to the user, false if the usage was shown instead
 	 */
 	public boolean showHelp(CommandSender sender) {
-		String title = CommandProcessUtils.msg("helpTitle").replace("%cmdname%", names[0]);
+		HelpCache cache = getHelpCache();
+		List<String> lines = cache.getLines(sender);
+		if (lines.size() > 0) {
+			sender.sendMessage(cache.title);
+			lines.forEach(sender::sendMessage);
+		} else {
+			sender.sendMessage(cache.getUsage());
+		}
+		return lines.size() > 0;
+	}
+	
+	private List<String> renderHelp(CommandSender sender) {
 		List<String> lines = new ArrayList<>();
 		Collections.addAll(lines, getHelpRecursive(sender, 0).trim().split("\n"));
 		if (parent != null) {
-			parent.children.stream().filter(c -> c != this && c.nameMatches(names[0])).forEach(c -> {
-				Collections.addAll(lines, c.getHelpRecursive(sender, 0).trim().split("\n"));
-			});
+			for (Command sibling : parent.children) {
+				if (sibling != this && sibling.nameMatches(names[0])) {
+					Collections.addAll(lines, sibling.getHelpRecursive(sender, 0).trim().split("\n"));
+				}
+			}
 		}
 		lines.removeIf(s -> s.length() == 0);
-		if (lines.size() > 0) {
-			sender.sendMessage(title);
-			lines.forEach(sender::sendMessage);
-		} else {
-			sender.sendMessage(CommandProcessUtils.msg("showUsage").replace("%usage%", getFullName()));
+		return Collections.unmodifiableList(lines);
+	}
+	
+	private HelpCache getHelpCache() {
+		Messages messages = CommandProcessUtils.getCommandManagerMessages();
+		HelpCache cache = helpCache;
+		if (cache == null || !cache.isValid(messages)) {
+			cache = new HelpCache(this, messages);
+			helpCache = cache;
+		}
+		return cache;
+	}
+	
+	private void collectHelpPermissions(Set<String> permissions) {
+		if (permission != null) {
+			permissions.add(permission);
+		}
+		for (Command child : children) {
+			child.collectHelpPermissions(permissions);
 		}
-		return lines.size() > 0;
 	}
 	
 	protected String getHelpRecursive(CommandSender sender, int level) {
 		if (permission != null && !sender.hasPermission(permission)) {
 			return "";
 		}
+		HelpCache cache = getHelpCache();
 		StringBuilder help = new StringBuilder();
-		help.append(this.help == null ? "" : CommandProcessUtils.msg("helpEntry").replace("%cmdname%", getFullName()).replace("%help%", this.help) + "\n");
+		help.append(this.help == null ? "" : cache.getEntry() + "\n");
 		if (hideSub && level != 0) {
 			if (help.length() == 0) {
-				return CommandProcessUtils.msg("helpEntry").replace("%cmdname%", getFullName()).replace("%help%", "[Hidden subcommands]") + "\n";
+				return cache.getHiddenEntry() + "\n";
 			}
 			return help.toString();
 		}
@@ -173,27 +257,43 @@ public class Command {
 		return "/" + name;
 	}
 	
-	private Result<Object[], String> processArgs(String[] argArray, Boolean[] quoted, Object[] prepend, CommandSender sender) {
-		Object[] output = new Object[args.length + flags.length + 1 + Math.max(0, prepend.length - 1)];
+	/**
+	 * Computes where values are placed in the hook arguments of this command and its children. Children after an
+	 * argument are passed the values of this command ahead of their own.
+	 * @param prependLength The number of values passed from the parents of this command
+	 */
+	private void layout(int prependLength) {
+		if (args == null) {
+			children.forEach(c -> c.layout(prependLength));
+			return;
+		}
+		this.prependLength = prependLength;
+		argOffset = 1 + Math.max(0, prependLength - 1);
+		outputSize = args.length + flags.length + argOffset;
+		for (Command child : children) {
+			child.layout(child.postArg ? prependLength + outputSize + contextProviders.length : prependLength);
+		}
+	}
+	
+	private Result<Object[], String> processArgs(ArgTokenizer tokens, int count, Object[] prepend, CommandSender sender) {
+		// The layout is computed for the values passed down the command tree. Other callers of execute may pass a
+		// different number, which is laid out here without changing it
+		boolean planned = prepend.length == prependLength;
+		int offset = planned ? argOffset : 1 + Math.max(0, prepend.length - 1);
+		Object[] output = new Object[planned ? outputSize : args.length + flags.length + offset];
 		if (prepend.length != 0) {
 			System.arraycopy(prepend, 1, output, 1, prepend.length - 1);
 		}
-		int offset = 1 + Math.max(0, prepend.length - 1);
 		output[0] = sender;
-		List<String> args = new ArrayList<>();
-		List<Boolean> quotedList = new ArrayList<>();
-		Collections.addAll(args, argArray);
-		Collections.addAll(quotedList, quoted);
-		String err;
-		
-		err = processFlags(args, output, quotedList, sender);
-		if (err != null) {
-			return new Result<>(this, null, err);
+		int size = count;
+		if (flags.length > 0) {
+			Result<Integer, String> flagResult = processFlags(tokens, count, output, sender);
+			if (flagResult.getMessage() != null) {
+				return new Result<>(this, null, flagResult.getMessage());
+			}
+			size = flagResult.getValue();
 		}
-		
-		List<CommandArgument> commandArgs = new ArrayList<>();
-		Collections.addAll(commandArgs, this.args);
-		err = convertArgs(commandArgs, args, quotedList, output, offset, sender);
+		String err = convertArgs(tokens, size, output, offset, sender);
 		if (err != null) {
 			return new Result<>(this, null, err);
 		}
@@ -202,68 +302,60 @@ public class Command {
 	
 	private String getWrongArgumentCountMessage(Command command, int args, int optionals) {
 		if (optionals == 0) {
-			return CommandProcessUtils.msg("wrongArgumentCount")
-					.replace("%args%", this.args.length + "")
-					.replace("%count%", args + "");
+			return CommandProcessUtils.msg("wrongArgumentCount", "args", this.args.length, "count", args);
 		} else {
-			return CommandProcessUtils.msg("wrongArgumentCount")
-					.replace("%args%", (this.args.length - optionals) + "-" + this.args.length)
-					.replace("%count%", args + "");
+			return CommandProcessUtils.msg("wrongArgumentCount", "args", (this.args.length - optionals) + "-" + this.args.length, "count", args);
 		}
 	}
 	
-	private String convertArgs(List<CommandArgument> commandArgs, List<String> args, List<Boolean> quoted, Object[] output, int offset, CommandSender sender) {
-		if (commandArgs.size() == 0) {
-			if (args.size() > 0) {
-				return getWrongArgumentCountMessage(this, args.size(), 0);
+	private String convertArgs(ArgTokenizer tokens, int size, Object[] output, int offset, CommandSender sender) {
+		if (args.length == 0) {
+			if (size > 0) {
+				return getWrongArgumentCountMessage(this, size, 0);
 			}
 			return null;
 		}
-		int diff = commandArgs.size() - args.size();
-		int optionals = (int) commandArgs.stream().filter(CommandArgument::isOptional).count();
-		if (optionals < diff || (args.size() > commandArgs.size() && !lastArgTakesAll())) {
-			return getWrongArgumentCountMessage(this, args.size(), optionals);
+		int diff = args.length - size;
+		int optionals = optionalArgs;
+		if (optionals < diff || (size > args.length && !lastArgTakesAll())) {
+			return getWrongArgumentCountMessage(this, size, optionals);
 		}
-		int argPos = 0;
-		for (int i = 0; i < args.size(); i++) {
-			CommandArgument carg = commandArgs.get(argPos);
-			String arg = args.get(i);
+		// Each argument either takes the next value or falls back to its default. An optional argument is given a
+		// value only while there are more values than required arguments left and the value converts to its type.
+		int pos = 0;
+		for (CommandArgument carg : args) {
 			if (carg.takesAll()) {
-				Result<Object, String> result = processTakeAllArg(carg, args, quoted, i, output, offset, sender);
+				Result<Object, String> result = processTakeAllArg(carg, tokens, size, pos, output, offset, sender);
 				if (result.getMessage() != null) {
 					return result.getMessage();
 				}
 				output[carg.getPosition() + offset] = result.getValue();
-				return null;
-			}
-			if (!carg.isOptional() || diff == 0) {
-				Result<Object, String> convertResult = CommandProcessUtils.convertArg(this, carg, arg, output, offset, sender);
-				if (convertResult.getMessage() != null) {
-					return convertResult.getMessage();
+				if (pos < size) {
+					return null;
 				}
-				output[carg.getPosition() + offset] = convertResult.getValue();
-				argPos++;
+				diff--;
 				continue;
 			}
-			Result<Object, String> convertResult = CommandProcessUtils.convertArg(this, carg, arg, output, offset, sender);
-			if (convertResult.getValue() == null || diff >= optionals) {
-				if (carg.isContextDefault() && !(sender instanceof Player)) {
-					return CommandProcessUtils.msg("contextDefaultFromConsole").replace("%arg%", carg.getName());
+			if (pos < size) {
+				if (!carg.isOptional() || diff == 0) {
+					Result<Object, String> convertResult = CommandProcessUtils.convertArg(this, carg, tokens.get(pos), output, offset, sender);
+					if (convertResult.getMessage() != null) {
+						return convertResult.getMessage();
+					}
+					output[carg.getPosition() + offset] = convertResult.getValue();
+					pos++;
+					continue;
+				}
+				Object value = diff >= optionals ? null : CommandProcessUtils.convertArg(this, carg, tokens.get(pos), output, offset, sender).getValue();
+				if (value != null) {
+					output[carg.getPosition() + offset] = value;
+					pos++;
+					continue;
 				}
-				diff--;
 				optionals--;
-				output[carg.getPosition() + offset] = carg.getDefaultValue(sender);
-				commandArgs.remove(argPos);
-				i--;
-				continue;
 			}
-			output[carg.getPosition() + offset] = convertResult.getValue();
-			argPos++;
-		}
-		for (int i = argPos; i < commandArgs.size(); i++) {
-			CommandArgument carg = commandArgs.get(i);
 			if (carg.isContextDefault() && !(sender instanceof Player)) {
-				return CommandProcessUtils.msg("contextDefaultFromConsole").replace("%arg%", carg.getName());
+				return CommandProcessUtils.msg("contextDefaultFromConsole", "arg", carg.getName());
 			}
 			output[carg.getPosition() + offset] = carg.getDefaultValue(sender);
 			diff--;
@@ -274,45 +366,42 @@ public class Command {
 		return null;
 	}
 	
-	private Result<Object, String> processTakeAllArg(CommandArgument arg, List<String> args, List<Boolean> quoted, int start, Object[] output, int offset, CommandSender sender) {
-		if (start >= args.size()) {
+	private Result<Object, String> processTakeAllArg(CommandArgument arg, ArgTokenizer tokens, int size, int start, Object[] output, int offset, CommandSender sender) {
+		if (start >= size) {
 			if (!arg.isOptional()) {
-				return new Result<>(this, null, CommandProcessUtils.msg("needArgument").replace("%arg%", arg.getName()));
+				return new Result<>(this, null, CommandProcessUtils.msg("needArgument", "arg", arg.getName()));
 			}
 			if (arg.isContextDefault() && !(sender instanceof Player)) {
-				return new Result<>(this, null, CommandProcessUtils.msg("contextDefaultFromConsole").replace("%arg%", arg.getName()));
+				return new Result<>(this, null, CommandProcessUtils.msg("contextDefaultFromConsole", "arg", arg.getName()));
 			}
 		}
 		if (arg.consumes()) {
-			if (start >= args.size()) {
+			if (start >= size) {
 				return new Result<>(this, arg.getDefaultValue(sender), null);
 			}
 			StringBuilder builder = new StringBuilder();
-			for (int i = start; i < args.size(); i++) {
-				if (quoted.get(i)) {
-					builder.append('"').append(args.get(i)).append('"');
+			for (int i = start; i < size; i++) {
+				if (tokens.isQuoted(i)) {
+					builder.append('"');
+					tokens.appendTo(i, builder);
+					builder.append('"');
 				} else {
-					builder.append(args.get(i));
+					tokens.appendTo(i, builder);
 				}
-				if (i != args.size() - 1) {
+				if (i != size - 1) {
 					builder.append(' ');
 				}
 			}
 			return CommandProcessUtils.convertArg(this, arg, builder.toString(), output, offset, sender);
 		}
-		Class<?> clazz = methodHook.getParameterTypes()[arg.getPosition() + offset];
-		if (!clazz.isArray()) {
-			throw new IllegalStateException("Expected type parameter #" + (arg.getPosition() + 2) + " for method hook " + methodHook.getName() + " to be an array");
-		}
-		clazz = clazz.getComponentType();
-		if (start >= args.size()) {
-			Object arr = Array.newInstance(clazz, 1);
+		if (start >= size) {
+			Object arr = Array.newInstance(takeAllType, 1);
 			Array.set(arr, 0, arg.getDefaultValue(sender));
 			return new Result<>(this, arr, null);
 		}
-		Object arr = Array.newInstance(clazz, args.size() - start);
-		for (int i = start; i < args.size(); i++) {
-			Result<Object, String> convert = CommandProcessUtils.convertArg(this, arg, args.get(i), output, offset, sender);
+		Object arr = Array.newInstance(takeAllType, size - start);
+		for (int i = start; i < size; i++) {
+			Result<Object, String> convert = CommandProcessUtils.convertArg(this, arg, tokens.get(i), output, offset, sender);
 			if (convert.getMessage() != null) {
 				return convert;
 			}
@@ -321,61 +410,70 @@ public class Command {
 		return new Result<>(this, arr, null);
 	}
 	
-	private String processFlags(List<String> args, Object[] output, List<Boolean> quoted, CommandSender sender) {
-		for (int i = 0; i < args.size(); i++) {
-			String arg = args.get(i);
-			if (!arg.startsWith("-") || quoted.get(i)) {
+	/**
+	 * Sets the values of all flags in the output, and moves the remaining tokens to the front of the tokenizer
+	 * @return The number of tokens remaining, or an error message
+	 */
+	private Result<Integer, String> processFlags(ArgTokenizer tokens, int count, Object[] output, CommandSender sender) {
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			if (tokens.isQuoted(i) || tokens.length(i) == 0 || tokens.charAt(i, 0) != '-') {
+				tokens.move(i, size++);
 				continue;
 			}
-			Flag flag = Arrays.stream(flags).filter(f -> f.nameMatches(arg)).findFirst().orElse(null);
+			String arg = tokens.get(i);
+			Flag flag = flagIndex.get(arg);
 			if (flag == null) {
-				if (charBoolFlags == null) {
+				if (!isBoolFlagCluster(arg)) {
+					tokens.move(i, size++);
 					continue;
 				}
-				List<Flag> flags = arg.chars().skip(1).mapToObj(c -> (char) c).map(charBoolFlags::get).collect(Collectors.toList());
-				if (flags.stream().anyMatch(Objects::isNull)) {
-					continue;
+				for (int j = 1; j < arg.length(); j++) {
+					output[charBoolFlags.get(arg.charAt(j)).getPosition() + 1] = true;
 				}
-				flags.forEach(f -> output[f.getPosition() + 1] = true);
-				args.remove(i);
-				quoted.remove(i);
-				i--;
 				continue;
 			}
-			if (flag.getType().getName().equals("boolean")) {
+			if (flag.isBoolean()) {
 				output[flag.getPosition() + 1] = true;
-				args.remove(i);
-				quoted.remove(i);
-				i--;
 				continue;
 			}
-			if (i == args.size() - 1) {
-				return CommandProcessUtils.msg("needFlagValue").replace("%flag%", flag.getName());
+			if (i == count - 1) {
+				return new Result<>(this, null, CommandProcessUtils.msg("needFlagValue", "flag", flag.getName()));
 			}
-			String next = args.get(i + 1);
-			try {
-				output[flag.getPosition() + 1] = Objects.requireNonNull(flag.getType().convert(sender, null, next));
-			} catch (Exception ex) {
-				return CommandProcessUtils.msg("invalidArgument").replace("%arg%", flag.getName()).replace("%value%", next);
+			String next = tokens.get(i + 1);
+			Object value = flag.convert(sender, next).getValue();
+			if (value == null) {
+				return new Result<>(this, null, CommandProcessUtils.msg("invalidArgument", "arg", flag.getName(), "value", next));
 			}
-			args.subList(i, i + 2).clear();
-			quoted.subList(i, i + 1).clear();
-			i--;
+			output[flag.getPosition() + 1] = value;
+			i++;
 		}
 		for (Flag flag : flags) {
 			if (output[flag.getPosition() + 1] != null) {
 				continue;
 			}
-			if (flag.getType().getName().equals("boolean")) {
+			if (flag.isBoolean()) {
 				output[flag.getPosition() + 1] = false;
 				continue;
 			}
 			if (flag.isContextDefault() && !(sender instanceof Player)) {
-				return CommandProcessUtils.msg("contextDefaultFlagFromConsole").replace("%flag%", flag.getName());
+				return new Result<>(this, null, CommandProcessUtils.msg("contextDefaultFlagFromConsole", "flag", flag.getName()));
 			}
 			output[flag.getPosition() + 1] = flag.getDefaultValue(sender);
 		}
-		return null;
+		return new Result<>(this, size, null);
+	}
+	
+	private boolean isBoolFlagCluster(String arg) {
+		if (charBoolFlags == null) {
+			return false;
+		}
+		for (int i = 1; i < arg.length(); i++) {
+			if (!charBoolFlags.containsKey(arg.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	private Object[] getContext(CommandSender sender) {
@@ -430,46 +528,103 @@ public class Command {
 		if (plugin == null) {
 			plugin = CommandProcessUtils.getCallingPlugin();
 		}
-		RedCommand cmd = new RedCommand(plugin, names[0], help == null ? "None" : help, "", Arrays.stream(names).skip(1).collect(Collectors.toList())) {
+		CommandPlatform platform = CommandProcessUtils.getPlatform();
+		platform.registerCommand(prefix, createCommand(Arrays.asList(names), label -> this));
+		if (asyncTab != null) {
+			asyncTab.listen(plugin, prefix, names, this::tab);
+		}
+		platform.onDisable(plugin, () -> unregister(prefix));
+		registerHook(createHookMap(listeners), plugin);
+	}
+	
+	/**
+	 * Creates the command which will be registered with the platform for some labels of this command, without
+	 * registering it. Executions and tab completions are routed by the label they were run with to whichever command
+	 * the route returns at the time, so the command tree behind the labels can be swapped without registering them
+	 * again.
+	 * @param labels The labels to register, the first of which is the name
+	 * @param route Gets the command to route a label to, or null if the label has been removed
+	 * @return The command to register
+	 */
+	RedCommand createCommand(List<String> labels, Function<String, Command> route) {
+		return new RedCommand(plugin, labels.get(0), help == null ? "None" : help, "", new ArrayList<>(labels.subList(1, labels.size()))) {
 			
 			@Override
 			public boolean execute(CommandSender sender, String name, String[] args) {
-				Command.this.execute(sender, args, new Object[0]);
+				Command command = route.apply(name);
+				if (command != null) {
+					command.execute(sender, args, new Object[0]);
+				}
 				return true;
 			}
 			
 			@Override
 			public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
-				return tab(sender, args);
+				Command command = route.apply(alias);
+				if (command == null) {
+					return new ArrayList<>();
+				}
+				return command.tab(sender, args);
 			}
 			
 		};
-		commandMap.register(prefix, cmd);
-		new UnregisterListener(plugin, this::unregister);
-		registerHook(createHookMap(listeners), plugin);
 	}
 	
-	private void unregister() {
-		Arrays.stream(names).forEach(knownCommands::remove);
+	void unregister(String prefix) {
+		CommandPlatform platform = CommandProcessUtils.getPlatform();
+		String fallback = prefix.toLowerCase(Locale.ROOT).trim() + ":";
+		for (String name : names) {
+			platform.unregisterCommand(name);
+			platform.unregisterCommand(fallback + name.toLowerCase(Locale.ROOT));
+		}
 	}
 	
-	protected Map<String, MethodHook> createHookMap(Object... listeners) {
+	protected static Map<String, MethodHook> createHookMap(Object... listeners) {
 		Map<String, MethodHook> hooks = new HashMap<>();
+		Map<ClassLoader, Map<Class<?>, CommandHookTable>> tables = new HashMap<>();
 		for (Object listener : listeners) {
-			for (Method method : listener.getClass().getDeclaredMethods()) {
+			Class<?> clazz = listener.getClass();
+			CommandHookTable table = tables.computeIfAbsent(clazz.getClassLoader(), Command::loadHookTables).get(clazz);
+			if (table != null) {
+				for (CommandHookTable.Hook hook : table.getHooks()) {
+					putHook(hooks, hook.getName(), new MethodHook(hook, clazz, listener));
+				}
+				continue;
+			}
+			for (Method method : clazz.getDeclaredMethods()) {
 				CommandHook cmdHook = method.getAnnotation(CommandHook.class);
 				if (cmdHook == null) {
 					continue;
 				}
-				if (hooks.put(cmdHook.value(), new MethodHook(method, listener)) != null) {
-					throw new CommandHookException("Duplicate method hook for name '" + cmdHook.value() + "'");
-				}
+				putHook(hooks, cmdHook.value(), new MethodHook(method, listener));
 			}
 		}
 		return hooks;
 	}
 	
+	private static void putHook(Map<String, MethodHook> hooks, String name, MethodHook hook) {
+		if (hooks.put(name, hook) != null) {
+			throw new CommandHookException("Duplicate method hook for name '" + name + "'");
+		}
+	}
+	
+	private static Map<Class<?>, CommandHookTable> loadHookTables(ClassLoader loader) {
+		Map<Class<?>, CommandHookTable> tables = new HashMap<>();
+		try {
+			for (CommandHookTable table : ServiceLoader.load(CommandHookTable.class, loader)) {
+				tables.put(table.getListenerClass(), table);
+			}
+		} catch (ServiceConfigurationError e) {
+			CommandProcessUtils.getPlatform().getLogger().warning("Could not load generated command hooks, falling back to reflection");
+			e.printStackTrace();
+		}
+		return tables;
+	}
+	
 	protected void registerHook(Map<String, MethodHook> hooks, Plugin plugin) {
+		if (parent == null) {
+			layout(0);
+		}
 		for (Command child : children) {
 			child.registerHook(hooks, plugin);
 		}
@@ -481,8 +636,9 @@ public class Command {
 		if (hook != null && mh == null) {
 			throw new CommandHookException("Command with hook name " + hook + " has no method hook");
 		}
-		methodHook = mh.getMethod();
-		Class<?>[] params = methodHook.getParameterTypes();
+		methodHook = mh;
+		async |= mh.isAsync();
+		Class<?>[] params = mh.getParameterTypes();
 		int expectedLength = args.length + contextProviders.length + flags.length + 1;
 		Command current = this;
 		while (current != null) {
@@ -492,42 +648,88 @@ public class Command {
 			current = current.parent;
 		}
 		if (params.length != expectedLength) {
-			throw new IllegalStateException("Incorrect number of arguments for method hook! [" + methodHook.getDeclaringClass().getName() + "." + methodHook.getName() + "] "
+			throw new IllegalStateException("Incorrect number of arguments for method hook! [" + mh.getName() + "] "
 					+ "Argument count should be " + expectedLength + ", got " + params.length);
 		}
-		this.listener = mh.getListener();
 		if (!CommandSender.class.isAssignableFrom(params[0])) {
-			throw new IllegalStateException("The first argument must be CommandSender or one of its subclasses! [" + methodHook.getDeclaringClass().getName() + "." + methodHook.getName() + "]");
+			throw new IllegalStateException("The first argument must be CommandSender or one of its subclasses! [" + mh.getName() + "]");
+		}
+		int offset = params.length - (args.length + contextProviders.length + flags.length);
+		for (CommandArgument arg : args) {
+			checkPrimitiveParameter(mh, params[arg.getPosition() + offset], arg.getType(), arg.getName());
+		}
+		for (Flag flag : flags) {
+			checkPrimitiveParameter(mh, params[flag.getPosition() + 1], flag.getType(), flag.getName());
+		}
+		if (lastArgTakesAll() && !args[args.length - 1].consumes()) {
+			Class<?> param = params[args[args.length - 1].getPosition() + offset];
+			if (!param.isArray()) {
+				throw new IllegalStateException("Expected type parameter #" + (args[args.length - 1].getPosition() + offset + 1) + " for method hook " + mh.getName() + " to be an array");
+			}
+			takeAllType = param.getComponentType();
+		}
+	}
+	
+	private static void checkPrimitiveParameter(MethodHook hook, Class<?> param, ArgType<?> type, String name) {
+		if (!param.isPrimitive() || !(type instanceof PrimitiveArgType)) {
+			return;
+		}
+		Class<?> primitive = ((PrimitiveArgType<?>) type).getPrimitiveType();
+		if (!MethodHook.widens(primitive, param)) {
+			throw new IllegalStateException("Parameter for argument " + name + " of type " + type.getName() + " cannot be " + param.getName()
+					+ "! [" + hook.getName() + "]");
 		}
 	}
 	
 	protected List<String> tab(CommandSender sender, String[] args) {
+		if (metrics == null) {
+			return tabTopLevel(sender, args);
+		}
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			List<String> completions = tabTopLevel(sender, args);
+			success = true;
+			return completions;
+		} finally {
+			metrics.record(CommandMetrics.Stage.TAB, getMetricsKey(), System.nanoTime() - start, success);
+		}
+	}
+	
+	private List<String> tabTopLevel(CommandSender sender, String[] args) {
 		List<String> argList = CommandProcessUtils.splitArgsForTab(args);
 		args = argList.toArray(new String[0]);
-		List<String> completions = tab(sender, argList, args);
-		String last = args.length > 0 ? args[args.length - 1].toLowerCase(Locale.ROOT) : "";
-		return completions.stream().filter(c -> c.toLowerCase(Locale.ROOT).startsWith(last)).map(s -> s.contains(" ") ? "\"" + s + "\"" : s).collect(Collectors.toList());
+		String prefix = args.length > 0 ? args[args.length - 1] : "";
+		List<String> completions = tab(sender, argList, args, prefix);
+		completions.replaceAll(s -> s.indexOf(' ') != -1 ? "\"" + s + "\"" : s);
+		return completions;
 	}
 	
-	private List<String> tab(CommandSender sender, List<String> args, String[] completeArgs) {
+	private List<String> tab(CommandSender sender, List<String> args, String[] completeArgs, String prefix) {
 		List<String> completions = new ArrayList<>();
 		boolean childrenTabbed = false;
-		for (Command child : children) {
-			if (child.noTab || child.postArg || (child.getPermission() != null && !sender.hasPermission(child.getPermission()))) {
-				continue;
-			}
-			if (args.size() > 0 && child.nameMatches(args.get(0))) {
-				completions.addAll(child.tab(sender, args.stream().skip(1).collect(Collectors.toList()), completeArgs));
+		if (args.size() > 0) {
+			for (Command child : childIndex.getOrDefault(args.get(0), noCommands)) {
+				if (child.noTab || (child.getPermission() != null && !sender.hasPermission(child.getPermission()))) {
+					continue;
+				}
+				completions.addAll(child.tab(sender, new ArrayList<>(args.subList(1, args.size())), completeArgs, prefix));
 				childrenTabbed = true;
 			}
-			if (args.size() == 1) {
+		}
+		if (args.size() == 1) {
+			for (Command child : children) {
+				if (child.noTab || child.postArg || !CommandProcessUtils.startsWithIgnoreCase(child.getName(), prefix)
+						|| (child.getPermission() != null && !sender.hasPermission(child.getPermission()))) {
+					continue;
+				}
 				completions.add(child.getName());
 			}
 		}
 		if (childrenTabbed) {
 			return completions;
 		}
-		Result<Boolean, List<String>> flagResults = tabCompleteFlags(args, sender);
+		Result<Boolean, List<String>> flagResults = tabCompleteFlags(args, sender, prefix);
 		if (flagResults.getValue()) {
 			return flagResults.getMessage();
 		} else {
@@ -536,30 +738,31 @@ public class Command {
 		if (this.args.length > 0) {
 			CommandArgument last = this.args[Math.max(0, Math.min(args.size() - 1, this.args.length - 1))];
 			if (last.isVararg() || args.size() <= this.args.length) {
-				completions.addAll(tabCompleteArgument(last, completeArgs, sender));
+				completions.addAll(tabCompleteArgument(last, completeArgs, sender, prefix));
 			}
 		}
 		if (args.size() > this.args.length && hasPostArgChild) {
 			int next = this.args.length;
 			String name = args.get(next);
-			List<String> toComplete = args.stream().skip(next + 1).collect(Collectors.toList());
-			for (Command child : children) {
+			boolean completeName = next + 1 == args.size();
+			List<String> toComplete = args.subList(next + 1, args.size());
+			for (Command child : completeName ? children : Arrays.asList(postArgChildIndex.getOrDefault(name, noCommands))) {
 				if (!child.isPostArg() || (child.getPermission() != null && !sender.hasPermission(child.getPermission()))) {
 					continue;
 				}
-				if (next + 1 == args.size()) {
-					completions.add(child.getName());
+				if (completeName) {
+					if (CommandProcessUtils.startsWithIgnoreCase(child.getName(), prefix)) {
+						completions.add(child.getName());
+					}
 					continue;
 				}
-				if (child.nameMatches(name)) {
-					completions.addAll(child.tab(sender, toComplete, completeArgs));
-				}
+				completions.addAll(child.tab(sender, new ArrayList<>(toComplete), completeArgs, prefix));
 			}
 		}
 		return completions;
 	}
 	
-	private Result<Boolean, List<String>> tabCompleteFlags(List<String> args, CommandSender sender) {
+	private Result<Boolean, List<String>> tabCompleteFlags(List<String> args, CommandSender sender, String prefix) {
 		if (args.size() == 0) {
 			return new Result<>(this, false, new ArrayList<>());
 		}
@@ -569,11 +772,11 @@ public class Command {
 			if (!arg.startsWith("-")) {
 				continue;
 			}
-			Flag flag = Arrays.stream(flags).filter(f -> f.nameMatches(arg)).findFirst().orElse(null);
+			Flag flag = flagIndex.get(arg);
 			if (flag == null) {
 				continue;
 			}
-			if (flag.getType().getName().equals("boolean")) {
+			if (flag.isBoolean()) {
 				used.add(flag);
 				args.remove(i);
 				i--;
@@ -590,23 +793,77 @@ public class Command {
 		List<String> completions = new ArrayList<>();
 		String lastArg = args.get(args.size() - 1);
 		if (lastArg.startsWith("-")) {
-			Arrays.stream(flags).filter(f -> !used.contains(f)).forEach(f -> Collections.addAll(completions, f.getNames()));
+			for (Flag flag : flags) {
+				if (used.contains(flag)) {
+					continue;
+				}
+				for (String name : flag.getNames()) {
+					if (CommandProcessUtils.startsWithIgnoreCase(name, prefix)) {
+						completions.add(name);
+					}
+				}
+			}
 			return new Result<>(this, true, completions);
 		}
 		if (args.size() <= 1) {
 			return new Result<>(this, false, completions);
 		}
 		String nextToLast = args.get(args.size() - 2);
-		Flag flag = Arrays.stream(flags).filter(f -> f.nameMatches(nextToLast)).findFirst().orElse(null);
+		Flag flag = flagIndex.get(nextToLast);
 		if (flag == null) {
 			return new Result<>(this, false, completions);
 		}
-		completions.addAll(flag.getType().tabComplete(sender, args.toArray(new String[0]), null));
+		completions.addAll(flag.getType().tabComplete(sender, args.toArray(new String[0]), null, prefix));
 		return new Result<>(this, true, completions);
 	}
 	
-	private List<String> tabCompleteArgument(CommandArgument arg, String[] str, CommandSender sender) {
-		return arg.getType().tabComplete(sender, str, getPrevious(str, str.length - 1, arg.getPosition(), sender));
+	private List<String> tabCompleteArgument(CommandArgument arg, String[] str, CommandSender sender, String prefix) {
+		ArgType<?> type = arg.getType();
+		if (tabCache == null || type.isTabIndexed() || type.getCompletionScope() == CompletionScope.VOLATILE) {
+			return type.tabComplete(sender, str, getPrevious(str, str.length - 1, arg.getPosition(), sender), prefix);
+		}
+		String previous = type.getParent() != null ? getPreviousTokens(str, str.length - 1, arg.getPosition()) : null;
+		List<String> completions = tabCache.get(this, arg.getPosition(), type, previous, sender);
+		if (completions == null) {
+			completions = type.tabComplete(sender, str, getPrevious(str, str.length - 1, arg.getPosition(), sender));
+			tabCache.put(this, arg.getPosition(), type, previous, sender, completions);
+		}
+		return CommandProcessUtils.filterByPrefix(completions, prefix);
+	}
+	
+	protected void setHookExecutor(Executor executor) {
+		hookExecutor = executor;
+		for (Command child : children) {
+			child.setHookExecutor(executor);
+		}
+	}
+	
+	protected void setMetrics(CommandMetrics metrics) {
+		this.metrics = metrics;
+		for (Command child : children) {
+			child.setMetrics(metrics);
+		}
+	}
+	
+	/**
+	 * @return The metrics this command records timings to, or null if it does not record timings
+	 */
+	public CommandMetrics getMetrics() {
+		return metrics;
+	}
+	
+	private String getMetricsKey() {
+		if (metricsKey == null) {
+			metricsKey = getExpandedName();
+		}
+		return metricsKey;
+	}
+	
+	protected void setTabCache(TabCompletionCache cache) {
+		tabCache = cache;
+		for (Command child : children) {
+			child.setTabCache(cache);
+		}
 	}
 	
 	private Object getPrevious(String[] args, int pos, int argNum, CommandSender sender) {
@@ -640,9 +897,48 @@ public class Command {
 		return prevArg.getType().convert(sender, previous, args[pos - 1]);
 	}
 	
+	/**
+	 * Gets the raw tokens {@link #getPrevious(String[], int, int, CommandSender)} would convert, so they can be used
+	 * to key cached completions of subtypes
+	 */
+	private String getPreviousTokens(String[] args, int pos, int argNum) {
+		if ((argNum < 1 || pos < 1) && !postArg) {
+			return null;
+		}
+		if (argNum < 0 || pos < 0 || argNum >= this.args.length || pos >= args.length) {
+			return null;
+		}
+		if (postArg && argNum == 0) {
+			pos--;
+		}
+		if (pos < 1) {
+			return null;
+		}
+		String token = args[pos - 1];
+		if (this.args[argNum].getType().getParent() == null) {
+			return token;
+		}
+		String previous = getPreviousTokens(args, pos - 1, argNum - 1);
+		return previous == null ? token : previous + '\0' + token;
+	}
+	
 	protected Result<Boolean, String> execute(CommandSender sender, String[] args, Object[] parentArgs) {
+		if (metrics == null) {
+			return executeNode(sender, args, parentArgs);
+		}
+		long start = System.nanoTime();
+		Result<Boolean, String> result = null;
+		try {
+			result = executeNode(sender, args, parentArgs);
+			return result;
+		} finally {
+			metrics.record(CommandMetrics.Stage.EXECUTE, getMetricsKey(), System.nanoTime() - start, result != null && result.getValue());
+		}
+	}
+	
+	private Result<Boolean, String> executeNode(CommandSender sender, String[] args, Object[] parentArgs) {
 		if (permission != null && !sender.hasPermission(permission)) {
-			sender.sendMessage(CommandProcessUtils.msg("noPermission").replace("%permission%", permission));
+			sender.sendMessage(CommandProcessUtils.msg("noPermission", "permission", permission));
 			return new Result<>(this, true, null);
 		}
 		if (args.length > 0 && args[0].equalsIgnoreCase("help") && !noHelp) {
@@ -664,10 +960,7 @@ public class Command {
 			return new Result<>(this, false, results.stream().findFirst().map(Result::getMessage).orElse(null));
 		}
 		String[] truncArgs = Arrays.copyOfRange(args, 1, args.length);
-		for (Command command : children) {
-			if (command.isPostArg() || !command.nameMatches(args[0])) {
-				continue;
-			}
+		for (Command command : childIndex.getOrDefault(args[0], noCommands)) {
 			Result<Boolean, String> result = command.execute(sender, truncArgs, parentArgs);
 			if (result.getValue()) {
 				return new Result<>(this, true, null);
@@ -675,7 +968,7 @@ public class Command {
 			results.add(result);
 		}
 		Result<Boolean, String> deepest = results.stream().max(Comparator.comparingInt(r -> r.getCommand().getDepth())).orElse(
-				new Result<>(this, false, CommandProcessUtils.msg("invalidSubcommand").replace("%value%", args[0]))
+				new Result<>(this, false, CommandProcessUtils.msg("invalidSubcommand", "value", args[0]))
 		);
 		if (!topLevel) {
 			return deepest;
@@ -704,15 +997,18 @@ public class Command {
 				}
 				break;
 		}
-		Result<String[], Boolean[]> split = CommandProcessUtils.splitArgs(String.join(" ", args));
-		String[] toProcess = split.getValue();
-		if (hasPostArgChild) {
-			String[] next = new String[Math.min(toProcess.length, this.args.length)];
-			System.arraycopy(toProcess, 0, next, 0, next.length);
-			toProcess = next;
+		ArgTokenizer tokens = ArgTokenizer.acquire().tokenize(args);
+		int postArgStart = -1;
+		Result<Object[], String> result;
+		try {
+			int count = hasPostArgChild ? Math.min(tokens.size(), this.args.length) : tokens.size();
+			if (hasPostArgChild && tokens.size() > count && !tokens.isQuoted(count)) {
+				postArgStart = tokens.getSource(count);
+			}
+			result = processArgs(tokens, count, parentArgs, sender);
+		} finally {
+			tokens.release();
 		}
-		Boolean[] quoted = split.getMessage();
-		Result<Object[], String> result = processArgs(toProcess, quoted, parentArgs, sender);
 		Object[] objArgs = result.getValue();
 		if (objArgs == null) {
 			results.add(new Result<>(this, false, result.getMessage()));
@@ -728,15 +1024,11 @@ public class Command {
 			}
 			objArgs = CommandProcessUtils.combine(objArgs, context);
 		}
-		if (hasPostArgChild && split.getValue().length > this.args.length && !quoted[toProcess.length]) {
-			int spaces = (int) Arrays.stream(toProcess).filter(s -> s.contains(" ")).count();
-			int start = this.args.length + spaces;
+		if (postArgStart != -1) {
+			int start = postArgStart;
 			String[] truncArgs = Arrays.copyOfRange(args, start + 1, args.length);
 			Object[] combined = CommandProcessUtils.combine(parentArgs, objArgs);
-			for (Command command : children) {
-				if (!command.isPostArg() || !command.nameMatches(args[start])) {
-					continue;
-				}
+			for (Command command : postArgChildIndex.getOrDefault(args[start], noCommands)) {
 				Result<Boolean, String> execResult = command.execute(sender, truncArgs, combined);
 				if (execResult.getValue()) {
 					return new Result<>(this, true, null);
@@ -745,20 +1037,26 @@ public class Command {
 			}
 			return null;
 		}
-		try {
-			methodHook.invoke(listener, objArgs);
+		if (async && methodHook.accepts(objArgs)) {
+			invokeAsync(sender, objArgs);
 			return new Result<>(this, true, null);
-		} catch (IllegalAccessException | InvocationTargetException e) {
-			e.printStackTrace();
-			sender.sendMessage(CommandProcessUtils.msg("commandError"));
+		}
+		try {
+			invokeHook(objArgs);
 			return new Result<>(this, true, null);
-		} catch (IllegalArgumentException e) {
+		} catch (Throwable e) {
+			if (methodHook.accepts(objArgs)) {
+				e.printStackTrace();
+				sender.sendMessage(CommandProcessUtils.msg("commandError"));
+				return new Result<>(this, true, null);
+			}
 			StringJoiner joiner = new StringJoiner(", ", "[", "]");
 			for (Object o : objArgs) {
-				joiner.add(o.getClass().getName());
+				joiner.add(o == null ? "null" : o.getClass().getName());
 			}
-			Bukkit.getLogger().warning("Could not invoke method hook " + hook + " for plugin " + plugin + " with arguments of types:");
-			Bukkit.getLogger().warning(joiner.toString());
+			Logger logger = CommandProcessUtils.getPlatform().getLogger();
+			logger.warning("Could not invoke method hook " + hook + " for plugin " + plugin + " with arguments of types:");
+			logger.warning(joiner.toString());
 			e.printStackTrace();
 			if (topLevel) {
 				showHelp(sender);
@@ -768,13 +1066,51 @@ public class Command {
 		return null;
 	}
 	
+	private void invokeHook(Object[] objArgs) throws Throwable {
+		if (metrics == null) {
+			methodHook.invoke(objArgs);
+			return;
+		}
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			methodHook.invoke(objArgs);
+			success = true;
+		} finally {
+			metrics.record(CommandMetrics.Stage.HOOK, hook, System.nanoTime() - start, success);
+		}
+	}
+	
+	private void invokeAsync(CommandSender sender, Object[] objArgs) {
+		Executor executor = hookExecutor == null ? AsyncHooks.getDefaultExecutor() : hookExecutor;
+		Runnable error = () -> sender.sendMessage(CommandProcessUtils.msg("commandError"));
+		try {
+			executor.execute(() -> {
+				try {
+					invokeHook(objArgs);
+				} catch (Throwable e) {
+					e.printStackTrace();
+					AsyncHooks.sync(plugin, error);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			CommandProcessUtils.getPlatform().getLogger().warning("Could not run async method hook " + hook + " for plugin " + plugin + ": executor rejected it");
+			error.run();
+		}
+	}
+	
 	/**
 	 * Check if a name matches any of this command's aliases
 	 * @param name The name to check
 	 * @return Whether the name matches any of this command's aliases
 	 */
 	public boolean nameMatches(String name) {
-		return Arrays.stream(names).anyMatch(s -> s.equals(name));
+		for (String alias : names) {
+			if (alias.equals(name)) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	private int getDepth() {
@@ -788,10 +1124,9 @@ public class Command {
 	}
 	
 	protected static ArgType<?> getType(String name, ArgType<?>[] types) {
-		for (ArgType<?> type : Command.types) {
-			if (type.getName().equals(name)) {
-				return type;
-			}
+		ArgType<?> builtIn = TypeRegistry.getBuiltInArgType(name);
+		if (builtIn != null) {
+			return builtIn;
 		}
 		for (ArgType<?> type : types) {
 			if (type.getName().equals(name)) {
@@ -829,6 +1164,13 @@ public class Command {
 		return postArg;
 	}
 	
+	/**
+	 * @return Whether this command's method hook is run asynchronously
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+	
 	/**
 	 * @return The command's help message
 	 */
@@ -843,6 +1185,88 @@ public class Command {
 		return permission;
 	}
 	
+	/**
+	 * The rendered help of a command, which is rebuilt whenever the command manager's messages change.
+	 * Help lines are cached by which of the permissions in the command's subtree the sender has.
+	 */
+	private static class HelpCache {
+		
+		private static final int MAX_PERMISSION_SETS = 256;
+		
+		private Command command;
+		private Messages messages;
+		private int revision;
+		private String title;
+		private String usage;
+		private String entry;
+		private String hiddenEntry;
+		private String[] permissions;
+		private Map<BitSet, List<String>> lines = new ConcurrentHashMap<>();
+		
+		public HelpCache(Command command, Messages messages) {
+			this.command = command;
+			this.messages = messages;
+			revision = messages.getRevision();
+			title = messages.format("helpTitle", "cmdname", command.names[0]);
+		}
+		
+		public String getUsage() {
+			if (usage == null) {
+				usage = messages.format("showUsage", "usage", command.getFullName());
+			}
+			return usage;
+		}
+		
+		public String getEntry() {
+			if (entry == null) {
+				entry = messages.format("helpEntry", "cmdname", command.getFullName(), "help", command.help == null ? "" : command.help);
+			}
+			return entry;
+		}
+		
+		public String getHiddenEntry() {
+			if (hiddenEntry == null) {
+				hiddenEntry = messages.format("helpEntry", "cmdname", command.getFullName(), "help", "[Hidden subcommands]");
+			}
+			return hiddenEntry;
+		}
+		
+		public boolean isValid(Messages messages) {
+			return this.messages == messages && revision == messages.getRevision();
+		}
+		
+		public List<String> getLines(CommandSender sender) {
+			if (permissions == null) {
+				Set<String> found = new LinkedHashSet<>();
+				command.collectHelpPermissions(found);
+				if (command.parent != null) {
+					for (Command sibling : command.parent.children) {
+						if (sibling != command && sibling.nameMatches(command.names[0])) {
+							sibling.collectHelpPermissions(found);
+						}
+					}
+				}
+				permissions = found.toArray(new String[0]);
+			}
+			BitSet key = new BitSet(permissions.length);
+			for (int i = 0; i < permissions.length; i++) {
+				if (sender.hasPermission(permissions[i])) {
+					key.set(i);
+				}
+			}
+			List<String> cached = lines.get(key);
+			if (cached == null) {
+				cached = command.renderHelp(sender);
+				if (lines.size() >= MAX_PERMISSION_SETS) {
+					lines.clear();
+				}
+				lines.put(key, cached);
+			}
+			return cached;
+		}
+		
+	}
+	
 	public static enum SenderType {
 		
 		CONSOLE,
@@ -853,23 +1277,149 @@ public class Command {
 	
 	protected static class MethodHook {
 		
+		private static final List<Class<?>> numericTypes = Arrays.asList(byte.class, short.class, int.class, long.class, float.class, double.class);
+		private static final Map<Class<?>, Class<?>> primitiveTypes = new HashMap<>();
+		
+		static {
+			primitiveTypes.put(Boolean.class, boolean.class);
+			primitiveTypes.put(Character.class, char.class);
+			primitiveTypes.put(Byte.class, byte.class);
+			primitiveTypes.put(Short.class, short.class);
+			primitiveTypes.put(Integer.class, int.class);
+			primitiveTypes.put(Long.class, long.class);
+			primitiveTypes.put(Float.class, float.class);
+			primitiveTypes.put(Double.class, double.class);
+		}
+		
 		private Method method;
 		private Object listener;
+		private String name;
+		private Class<?>[] params;
+		private MethodHandle invoker;
+		private CommandHookTable.Invoker generated;
+		private boolean async;
 		
 		public MethodHook(Method method, Object listener) {
 			this.method = method;
 			this.listener = listener;
-			Player player;
+			name = method.getDeclaringClass().getName() + "." + method.getName();
+			params = method.getParameterTypes();
+			CommandHook annotation = method.getAnnotation(CommandHook.class);
+			async = annotation != null && annotation.async();
+			try {
+				method.setAccessible(true);
+				MethodHandle handle = MethodHandles.lookup().unreflect(method);
+				if (!Modifier.isStatic(method.getModifiers())) {
+					handle = handle.bindTo(listener);
+				}
+				// Bound once here so every call is a single spread invokeExact instead of a reflective lookup
+				invoker = handle.asType(handle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+			} catch (IllegalAccessException e) {
+				throw new CommandHookException("Could not access method hook " + method.getDeclaringClass().getName() + "." + method.getName());
+			}
 		}
 		
+		/**
+		 * Creates a method hook from a table generated at compile time, which is invoked without reflection
+		 * @param hook The generated hook
+		 * @param clazz The listener class which declares the hook
+		 * @param listener The listener to invoke the hook on
+		 */
+		public MethodHook(CommandHookTable.Hook hook, Class<?> clazz, Object listener) {
+			this.listener = listener;
+			name = clazz.getName() + "." + hook.getMethod();
+			params = hook.getParameterTypes();
+			generated = hook.getInvoker();
+			async = hook.isAsync();
+		}
+		
+		/**
+		 * @return The method, or null if this hook was generated at compile time
+		 */
 		public Method getMethod() {
 			return method;
 		}
 		
+		/**
+		 * @return The name of the method, qualified with the name of its class
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		public Class<?>[] getParameterTypes() {
+			return params;
+		}
+		
 		public Object getListener() {
 			return listener;
 		}
 		
+		public boolean isAsync() {
+			return async;
+		}
+		
+		/**
+		 * Invokes the method hook with the given arguments
+		 * @param args The arguments to pass, which must match the parameter count of the method
+		 * @return The value returned by the method, or null if it is void
+		 * @throws Throwable Anything thrown by the method itself, or a ClassCastException or NullPointerException if the arguments do not match its parameter types
+		 */
+		public Object invoke(Object[] args) throws Throwable {
+			if (generated != null) {
+				return generated.invoke(listener, args);
+			}
+			return (Object) invoker.invokeExact(args);
+		}
+		
+		/**
+		 * Checks whether the given arguments could be passed to this method hook, following the same unboxing
+		 * and widening rules as the invoker
+		 * @param args The arguments to check
+		 * @return Whether the arguments match the parameter types of the method
+		 */
+		public boolean accepts(Object[] args) {
+			if (args.length != params.length) {
+				return false;
+			}
+			for (int i = 0; i < params.length; i++) {
+				if (!isCompatible(params[i], args[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		static boolean isCompatible(Class<?> param, Object arg) {
+			if (!param.isPrimitive()) {
+				return arg == null || param.isInstance(arg);
+			}
+			if (arg == null) {
+				return false;
+			}
+			Class<?> type = primitiveTypes.get(arg.getClass());
+			return type != null && widens(type, param);
+		}
+		
+		/**
+		 * Checks whether a primitive type can be passed as another, either because they are the same or
+		 * through a widening primitive conversion
+		 * @param from The primitive type of the value
+		 * @param to The primitive type of the parameter
+		 * @return Whether a value of the first type can be passed as the second
+		 */
+		protected static boolean widens(Class<?> from, Class<?> to) {
+			if (from == to) {
+				return true;
+			}
+			if (from == boolean.class) {
+				return false;
+			}
+			int fromIndex = numericTypes.indexOf(from == char.class ? int.class : from);
+			int toIndex = numericTypes.indexOf(to);
+			return fromIndex != -1 && toIndex >= fromIndex;
+		}
+		
 	}
 	
 }
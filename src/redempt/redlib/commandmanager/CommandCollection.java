@@ -2,13 +2,20 @@ package redempt.redlib.commandmanager;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.platform.CommandPlatform;
 import redempt.redlib.commandmanager.processing.CommandProcessUtils;
 import redempt.redlib.commandmanager.processing.Result;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -18,24 +25,44 @@ import java.util.stream.Collectors;
  */
 public class CommandCollection {
 	
-	private List<Command> commands;
+	private volatile List<Command> commands;
+	private volatile Map<String, Command> labels = Collections.emptyMap();
+	private AsyncTabCompletion asyncTab;
+	private TabCompletionCache tabCache;
+	private CommandMetrics metrics;
+	private Executor hookExecutor;
+	private Plugin plugin;
+	private String prefix;
+	private Object[] listeners;
+	private AtomicLong reloads = new AtomicLong();
+	// The number of the last reload swapped in, only accessed on the main thread
+	private long swapped;
 	
 	public CommandCollection(List<Command> commands) {
 		this.commands = commands;
 	}
 
 	/**
-	 * Register all commands in this CommandCollection
+	 * Register all commands in this CommandCollection. Listeners are scanned for method hooks once, all commands are
+	 * passed to the command map as one batch, and a single task unregisters them when the plugin is disabled.
 	 * @param plugin the plugin that owns the commands
 	 * @param prefix The fallback prefix of the commands
 	 * @param listeners The list of listener objects which contain hooks for the commands in this collection
 	 */
 	public void register(Plugin plugin, String prefix, Object... listeners) {
-		mergeBaseCommands();
-		commands.forEach(c -> {
-			c.plugin = plugin;
-			c.register(prefix, listeners);
-		});
+		this.plugin = plugin;
+		this.prefix = prefix;
+		this.listeners = listeners;
+		bind(commands);
+		labels = labels(commands);
+		insert(commands, Collections.emptySet());
+		if (asyncTab != null) {
+			asyncTab.listen(plugin, prefix, label -> {
+				Command command = route(label);
+				return command == null ? null : command::tab;
+			});
+		}
+		CommandProcessUtils.getPlatform().onDisable(plugin, () -> labels.keySet().forEach(this::unregister));
 	}
 	
 	/**
@@ -47,10 +74,157 @@ public class CommandCollection {
 		register(CommandProcessUtils.getCallingPlugin(), prefix, listeners);
 	}
 	
-	private void mergeBaseCommands() {
+	/**
+	 * Sets the cache to be used for argument tab completions of all commands in this CommandCollection.
+	 * Only ArgTypes which declare a non-volatile {@link ArgType.CompletionScope} will be cached.
+	 * @param cache The cache to use, or null to disable caching
+	 * @return This CommandCollection
+	 */
+	public CommandCollection setTabCache(TabCompletionCache cache) {
+		tabCache = cache;
+		commands.forEach(c -> c.setTabCache(cache));
+		return this;
+	}
+	
+	/**
+	 * Sets the metrics which all commands in this CommandCollection will record their timings to
+	 * @param metrics The metrics to record to, or null to disable recording
+	 * @return This CommandCollection
+	 */
+	public CommandCollection setMetrics(CommandMetrics metrics) {
+		this.metrics = metrics;
+		commands.forEach(c -> c.setMetrics(metrics));
+		return this;
+	}
+	
+	/**
+	 * Sets the executor used to run async method hooks of all commands in this CommandCollection.
+	 * @param executor The executor to use, or null to use {@link AsyncHooks#getDefaultExecutor()}
+	 * @return This CommandCollection
+	 */
+	public CommandCollection setHookExecutor(Executor executor) {
+		hookExecutor = executor;
+		commands.forEach(c -> c.setHookExecutor(executor));
+		return this;
+	}
+	
+	/**
+	 * Makes the commands in this CommandCollection compute tab completions asynchronously on servers which fire
+	 * Paper's AsyncTabCompleteEvent. Elsewhere, completions are still computed synchronously. Must be called before
+	 * the commands are registered.
+	 * @param asyncTab The AsyncTabCompletion to run completions with, or null to complete synchronously
+	 * @return This CommandCollection
+	 */
+	public CommandCollection setAsyncTab(AsyncTabCompletion asyncTab) {
+		this.asyncTab = asyncTab;
+		return this;
+	}
+	
+	/**
+	 * Reloads the commands in this CommandCollection from a parser, typically reading a changed command file.
+	 * The new commands are parsed and bound to the listeners this CommandCollection was registered with off the
+	 * main thread, then swapped in on the main thread, along with the settings of this CommandCollection. Commands
+	 * which are still running finish on the old commands. If parsing or binding fails, the old commands are kept.
+	 * Reloads may be parsed concurrently, but are swapped in the order they were requested: a reload which finishes
+	 * after a later one has been swapped in is discarded.
+	 * @param parser The parser to read the new commands from
+	 * @return A future which will be completed once the new commands are in use or have been superseded by a later
+	 * reload, or exceptionally if they could not be parsed or bound
+	 * @throws IllegalStateException if this CommandCollection has not been registered
+	 */
+	public CompletableFuture<Void> reload(CommandParser parser) {
+		if (plugin == null) {
+			throw new IllegalStateException("CommandCollection must be registered before it can be reloaded");
+		}
+		long reload = reloads.incrementAndGet();
+		return CompletableFuture.supplyAsync(() -> {
+			List<Command> reloaded = parser.parse().commands;
+			bind(reloaded);
+			return reloaded;
+		}, AsyncHooks.getDefaultExecutor()).thenCompose(reloaded -> AsyncHooks.sync(plugin, () -> {
+			if (reload > swapped) {
+				swapped = reload;
+				swap(reloaded);
+			}
+		}));
+	}
+	
+	private void bind(List<Command> commands) {
+		mergeBaseCommands(commands);
+		Map<String, Command.MethodHook> hooks = Command.createHookMap(listeners);
+		for (Command command : commands) {
+			command.plugin = plugin;
+			command.asyncTab = asyncTab;
+			command.setTabCache(tabCache);
+			command.setMetrics(metrics);
+			command.setHookExecutor(hookExecutor);
+			command.registerHook(hooks, plugin);
+		}
+	}
+	
+	private void swap(List<Command> reloaded) {
+		Map<String, Command> previous = labels;
+		labels = labels(reloaded);
+		commands = reloaded;
+		// Removed labels have to be freed before new ones are inserted, or a command whose aliases changed would
+		// only be given its fallback label by the command map
+		for (String label : previous.keySet()) {
+			if (!labels.containsKey(label)) {
+				unregister(label);
+			}
+		}
+		insert(reloaded, previous.keySet());
+	}
+	
+	private void insert(List<Command> commands, Set<String> registered) {
+		List<org.bukkit.command.Command> created = new ArrayList<>();
+		for (Command command : commands) {
+			List<String> added = new ArrayList<>();
+			for (String name : command.names) {
+				String label = name.toLowerCase(Locale.ROOT);
+				if (!registered.contains(label) && labels.get(label) == command && !added.contains(label)) {
+					added.add(label);
+				}
+			}
+			if (!added.isEmpty()) {
+				created.add(command.createCommand(added, this::route));
+			}
+		}
+		if (!created.isEmpty()) {
+			CommandProcessUtils.getPlatform().registerCommands(prefix, created);
+		}
+	}
+	
+	private Command route(String label) {
+		label = label.toLowerCase(Locale.ROOT);
+		int colon = label.indexOf(':');
+		return labels.get(colon == -1 ? label : label.substring(colon + 1));
+	}
+	
+	private void unregister(String label) {
+		CommandPlatform platform = CommandProcessUtils.getPlatform();
+		platform.unregisterCommand(label);
+		platform.unregisterCommand(prefix.toLowerCase(Locale.ROOT).trim() + ":" + label);
+	}
+	
+	private static Map<String, Command> labels(List<Command> commands) {
+		Map<String, Command> labels = new HashMap<>();
+		for (Command command : commands) {
+			for (String name : command.names) {
+				labels.put(name.toLowerCase(Locale.ROOT), command);
+			}
+		}
+		return labels;
+	}
+	
+	private static String key(Command command) {
+		return String.join(", ", command.getAliases());
+	}
+	
+	private static void mergeBaseCommands(List<Command> commands) {
 		Map<String, List<Command>> names = new HashMap<>();
 		for (Command command : commands) {
-			String name = String.join(", ", command.getAliases());
+			String name = key(command);
 			List<Command> cmds = names.getOrDefault(name, new ArrayList<>());
 			cmds.add(command);
 			names.put(name, cmds);
@@ -124,18 +298,17 @@ public class CommandCollection {
 				command.topLevel = false;
 				command.parent = this;
 			}
+			indexChildren();
 		}
 		
 		@Override
 		public Result<Boolean, String> execute(CommandSender sender, String[] args, Object[] prevArgs) {
-			List<Result<Boolean, String>> results = new ArrayList<>();
 			for (Command cmd : children) {
-				results.add(cmd.execute(sender, args, prevArgs));
-			}
-			if (results.stream().anyMatch(Result::getValue)) {
-				return null;
+				if (cmd.execute(sender, args, prevArgs).getValue()) {
+					return null;
+				}
 			}
-			sender.sendMessage(CommandProcessUtils.msg("helpTitle").replace("%cmdname%", children.get(0).getName()));
+			sender.sendMessage(CommandProcessUtils.msg("helpTitle", "cmdname", children.get(0).getName()));
 			sender.sendMessage(getHelpRecursive(sender, 0));
 			return null;
 		}
@@ -152,15 +325,6 @@ public class CommandCollection {
 			return completions;
 		}
 		
-		@Override
-		public void register(String prefix, Object... listeners) {
-			super.register(prefix, listeners);
-			Map<String, MethodHook> hooks = createHookMap(listeners);
-			for (Command command : children) {
-				command.registerHook(hooks, this.plugin);
-			}
-		}
-		
 	}
 	
 }
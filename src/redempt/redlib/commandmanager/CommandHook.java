@@ -11,4 +11,9 @@ public @interface CommandHook {
 	
 	public String value();
 	
+	/**
+	 * @return Whether the hook should be run asynchronously, after its arguments are converted on the calling thread
+	 */
+	public boolean async() default false;
+	
 }
@@ -0,0 +1,106 @@
+package redempt.redlib.commandmanager;
+
+import java.util.List;
+
+/**
+ * The method hooks of a listener class, generated at compile time by the annotation processor published with the
+ * {@code processor} classifier, and found through {@link java.util.ServiceLoader}. When a table exists for the class of a listener, its hooks are bound without
+ * scanning the class reflectively, and invoked without reflection.
+ */
+public interface CommandHookTable {
+	
+	/**
+	 * @return The listener class whose method hooks this table contains
+	 */
+	public Class<?> getListenerClass();
+	
+	/**
+	 * @return The method hooks declared by the listener class
+	 */
+	public List<Hook> getHooks();
+	
+	/**
+	 * Invokes a method hook on a listener
+	 */
+	@FunctionalInterface
+	public interface Invoker {
+		
+		/**
+		 * Invokes the method hook
+		 * @param listener The listener to invoke the method on, ignored if the method is static
+		 * @param args The arguments to pass to the method
+		 * @return The value returned by the method, or null if it is void
+		 * @throws Throwable Anything thrown by the method itself
+		 */
+		public Object invoke(Object listener, Object[] args) throws Throwable;
+		
+	}
+	
+	/**
+	 * A single method hook in a generated table
+	 */
+	public static class Hook {
+		
+		private String name;
+		private String method;
+		private boolean async;
+		private Class<?>[] params;
+		private Invoker invoker;
+		
+		/**
+		 * @param name The name of the hook, as given in {@link CommandHook#value()}
+		 * @param method The name of the method
+		 * @param async Whether the hook is run asynchronously
+		 * @param params The parameter types of the method
+		 * @param invoker Invokes the method
+		 */
+		public Hook(String name, String method, boolean async, Class<?>[] params, Invoker invoker) {
+			this.name = name;
+			this.method = method;
+			this.async = async;
+			this.params = params;
+			this.invoker = invoker;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public String getMethod() {
+			return method;
+		}
+		
+		public boolean isAsync() {
+			return async;
+		}
+		
+		public Class<?>[] getParameterTypes() {
+			return params;
+		}
+		
+		public Invoker getInvoker() {
+			return invoker;
+		}
+		
+		/**
+		 * Gets a boxed argument as a number so it can be passed to a primitive parameter. Only widening conversions
+		 * are allowed, the same as a reflective call.
+		 * @param arg The argument
+		 * @param type The primitive type of the parameter
+		 * @return The argument as a number
+		 * @throws NullPointerException if the argument is null
+		 * @throws ClassCastException if the argument cannot be widened to the parameter type
+		 */
+		public static Number number(Object arg, Class<?> type) {
+			if (arg == null) {
+				throw new NullPointerException("Cannot pass null as " + type.getName());
+			}
+			if (!Command.MethodHook.isCompatible(type, arg)) {
+				throw new ClassCastException("Cannot pass " + arg.getClass().getName() + " as " + type.getName());
+			}
+			return arg instanceof Character ? (int) (Character) arg : (Number) arg;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,45 @@
+package redempt.redlib.commandmanager;
+
+/**
+ * Receives timings from commands as they are executed and tab completed. Use
+ * {@link CommandCollection#setMetrics(CommandMetrics)} to enable it, and {@link InMemoryCommandMetrics} for a
+ * built-in implementation. Implementations will be called from the main thread as well as from async
+ * method hooks and tab completions, so they must be thread-safe and should be cheap.
+ */
+public interface CommandMetrics {
+	
+	/**
+	 * Records a single timed operation
+	 * @param stage The stage of command processing which was timed
+	 * @param key The expanded name of the command for {@link Stage#EXECUTE} and {@link Stage#TAB}, the hook name
+	 *               for {@link Stage#HOOK}, or the ArgType name for {@link Stage#CONVERT}
+	 * @param nanos How long the operation took, in nanoseconds
+	 * @param success Whether the operation succeeded
+	 */
+	public void record(Stage stage, String key, long nanos, boolean success);
+	
+	/**
+	 * A stage of command processing which can be timed
+	 */
+	public static enum Stage {
+		
+		/**
+		 * Executing a command node, including its subcommands
+		 */
+		EXECUTE,
+		/**
+		 * Invoking a method hook
+		 */
+		HOOK,
+		/**
+		 * Tab completing a command
+		 */
+		TAB,
+		/**
+		 * Converting a single argument with an ArgType
+		 */
+		CONVERT;
+		
+	}
+	
+}
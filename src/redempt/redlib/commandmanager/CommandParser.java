@@ -2,9 +2,11 @@ package redempt.redlib.commandmanager;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import redempt.redlib.commandmanager.Command.SenderType;
 import redempt.redlib.commandmanager.exceptions.CommandParseException;
 import redempt.redlib.commandmanager.processing.CommandArgument;
+import redempt.redlib.commandmanager.processing.CommandNode;
 import redempt.redlib.commandmanager.processing.CommandProcessUtils;
 import redempt.redlib.commandmanager.processing.Flag;
 
@@ -12,10 +14,14 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -25,10 +31,11 @@ import java.util.function.Function;
  */
 public class CommandParser {
 	
-	private ArgType<?>[] argTypes = {};
-	private ContextProvider<?>[] contextProviders = {ContextProvider.self};
+	private Map<String, ArgType<?>> argTypes = new HashMap<>();
+	private Map<String, ContextProvider<?>> contextProviders = new HashMap<>();
 	private InputStream stream;
 	private Messages messages;
+	private Plugin plugin;
 	
 	/**
 	 * Constructs a CommandParser to parse input from the given stream. Use {@link org.bukkit.plugin.java.JavaPlugin#getResource} for this
@@ -49,7 +56,8 @@ public class CommandParser {
 	}
 	
 	/**
-	 * Sets the CommandArgumentTypes to be used when building this command.
+	 * Sets the CommandArgumentTypes to be used when building this command. Built-in types take precedence over these,
+	 * and these take precedence over types registered with {@link TypeRegistry}.
 	 * @param types The CommandArgumentTypes to be used
 	 * @return This CommandParser
 	 */
@@ -57,12 +65,21 @@ public class CommandParser {
 		if (Arrays.stream(types).anyMatch(t -> t == null)) {
 			throw new IllegalArgumentException("Command argument types cannot be null!");
 		}
-		this.argTypes = types;
+		Map<String, ArgType<?>> index = new HashMap<>();
+		for (ArgType<?> type : types) {
+			if (TypeRegistry.getBuiltInArgType(type.getName()) != null) {
+				warn("ArgType " + type.getName() + " has the same name as a built-in type and will not be used");
+			} else if (index.putIfAbsent(type.getName(), type) != null) {
+				warn("More than one ArgType is named " + type.getName() + ", only the first will be used");
+			}
+		}
+		this.argTypes = index;
 		return this;
 	}
 	
 	/**
-	 * Sets the ContextProviders to be used when building this command.
+	 * Sets the ContextProviders to be used when building this command. Built-in providers take precedence over these,
+	 * and these take precedence over providers registered with {@link TypeRegistry}.
 	 * @param providers The ContextProviders to be used
 	 * @return This CommandParser
 	 */
@@ -70,244 +87,327 @@ public class CommandParser {
 		if (Arrays.stream(providers).anyMatch(t -> t == null)) {
 			throw new IllegalArgumentException("Context providers cannot be null!");
 		}
-		List<ContextProvider<?>> list = new ArrayList<>();
-		list.add(ContextProvider.self);
-		Collections.addAll(list, providers);
-		this.contextProviders = list.toArray(new ContextProvider[0]);
+		Map<String, ContextProvider<?>> index = new HashMap<>();
+		for (ContextProvider<?> provider : providers) {
+			if (TypeRegistry.getBuiltInContextProvider(provider.getName()) != null) {
+				warn("ContextProvider " + provider.getName() + " has the same name as a built-in provider and will not be used");
+			} else if (index.putIfAbsent(provider.getName(), provider) != null) {
+				warn("More than one ContextProvider is named " + provider.getName() + ", only the first will be used");
+			}
+		}
+		this.contextProviders = index;
+		return this;
+	}
+	
+	/**
+	 * Sets the plugin the commands are being parsed for, so the ArgTypes and ContextProviders it has registered
+	 * with {@link TypeRegistry} can be used without qualifying their names
+	 * @param plugin The plugin
+	 * @return This CommandParser
+	 */
+	public CommandParser setPlugin(Plugin plugin) {
+		this.plugin = plugin;
 		return this;
 	}
 	
+	private static void warn(String message) {
+		CommandProcessUtils.getPlatform().getLogger().warning(message);
+	}
+	
 	/**
 	 * Parses the command info from the stream
 	 * @return A CommandCollection representing all the commands which were parsed. Use {@link CommandCollection#register(String, Object...)} to register all commands in it at once.
 	 */
 	public CommandCollection parse() {
+		List<CommandNode> nodes;
+		try {
+			nodes = readNodes(stream);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		List<Command> commands = new ArrayList<>(nodes.size());
+		for (CommandNode node : nodes) {
+			Command command = build(node, true);
+			command.topLevel = true;
+			commands.add(command);
+		}
+		return new CommandCollection(commands);
+	}
+	
+	private CommandParseException error(String message, int line, int column) {
+		return new CommandParseException(message + ", line " + (line + 1) + ", column " + (column + 1));
+	}
+	
+	private List<CommandNode> readNodes(InputStream stream) throws IOException {
 		BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-		String line = "";
-		List<String> lines = new ArrayList<>();
+		List<CommandNode> nodes = new ArrayList<>();
+		Deque<CommandNode> stack = new ArrayDeque<>();
+		//Each line is held back until the next one is read, since a brace on its own line opens the command before it
+		String pending = null;
+		int pendingLine = 0;
+		int pendingColumn = 0;
+		String line;
 		try {
-			while ((line = reader.readLine()) != null) {
-				line = line.trim();
-				if (line.equals("{") && lines.size() > 0) {
-					String prev = lines.get(lines.size() - 1);
-					lines.set(lines.size() - 1, prev + " {");
+			for (int number = 0; (line = reader.readLine()) != null; number++) {
+				int start = 0;
+				int end = line.length();
+				while (start < end && line.charAt(start) <= ' ') {
+					start++;
+				}
+				while (end > start && line.charAt(end - 1) <= ' ') {
+					end--;
+				}
+				if (pending != null && end - start == 1 && line.charAt(start) == '{') {
+					pending += " {";
 					continue;
 				}
-				lines.add(line.trim());
+				if (pending != null) {
+					readLine(pending, pendingLine, pendingColumn, nodes, stack);
+				}
+				pending = line.substring(start, end);
+				pendingLine = number;
+				pendingColumn = start;
 			}
 		} catch (EOFException ignored) {
-		} catch (IOException e) {
-			e.printStackTrace();
-			return null;
 		}
-		return fromLines(lines, 0);
+		if (pending != null) {
+			readLine(pending, pendingLine, pendingColumn, nodes, stack);
+		}
+		if (!stack.isEmpty()) {
+			CommandNode node = stack.peek();
+			throw error("Missing closing brace for command " + node.getHeader(), node.getLine(), node.getColumn());
+		}
+		return nodes;
 	}
 	
-	private CommandParseException error(String message, int line) {
-		return new CommandParseException(message + ", line " + (line + 1));
+	private void readLine(String line, int pos, int column, List<CommandNode> nodes, Deque<CommandNode> stack) {
+		if (line.startsWith("//")) {
+			return;
+		}
+		//New command, nested in the command on top of the stack if there is one
+		if (line.endsWith("{")) {
+			CommandNode node = new CommandNode(line.substring(0, line.length() - 1).trim(), pos, column);
+			if (stack.isEmpty()) {
+				nodes.add(node);
+			} else {
+				stack.peek().addChild(node);
+			}
+			stack.push(node);
+			return;
+		}
+		//End of command data
+		if (line.equals("}")) {
+			if (stack.isEmpty()) {
+				throw error("Closing brace does not match any command", pos, column);
+			}
+			stack.pop();
+			return;
+		}
+		//Tag data for the command on top of the stack
+		if (!stack.isEmpty() && !line.isEmpty()) {
+			int index = line.indexOf(' ');
+			if (index == -1) {
+				stack.peek().addTag(line, null, pos, column);
+			} else {
+				stack.peek().addTag(line.substring(0, index), line.substring(index + 1), pos, column);
+			}
+		}
 	}
 	
-	private CommandCollection fromLines(List<String> lines, int lineNumber) {
-		int depth = 0;
-		String help = null;
-		String[] names = null;
+	private Command build(CommandNode node, boolean topLevel) {
+		int pos = node.getLine();
+		int column = node.getColumn();
+		String[] split = splitArgs(node.getHeader());
+		if (split.length == 0) {
+			throw error("Command name not specified", pos, column);
+		}
+		//Arguments are separated by exactly one space, so each one starts after the ones before it
+		int[] columns = new int[split.length];
+		for (int i = 1; i < split.length; i++) {
+			columns[i] = columns[i - 1] + split[i - 1].length() + 1;
+		}
+		String[] names = split[0].split(",");
 		List<CommandArgument> args = new ArrayList<>();
 		List<Flag> flags = new ArrayList<>();
+		for (int i = 1; i < split.length; i++) {
+			if (split[i].startsWith("-") && !split[i].contains(":")) {
+				split[i] = "boolean:" + split[i];
+			}
+			CommandArgument arg = parseArg(split[i], i, pos, column + columns[i]);
+			if (arg.getName().startsWith("-")) {
+				if (arg.getType().getParent() != null) {
+					throw error("Flags cannot use argument subtypes", pos, column + columns[i]);
+				}
+				if (arg.isOptional()) {
+					throw error("Flags cannot be marked as optional, they are optional by definition", pos, column + columns[i]);
+				}
+				if (arg.consumes() || arg.isVararg()) {
+					throw error("Flags cannot be consuming or vararg", pos, column + columns[i]);
+				}
+				Flag flag = new Flag(arg.getType(), arg.getName(), arg.getPosition(), arg.getDefaultValue(), arg.isContextDefault());
+				for (String name : flag.getNames()) {
+					if (!name.startsWith("-")) {
+						throw error("All flag names and aliases must start with a dash", pos, column + columns[i]);
+					}
+				}
+				flags.add(flag);
+				continue;
+			}
+			ArgType<?> parent = arg.getType().getParent();
+			if (parent != null && (args.size() > 0 && !args.get(args.size() - 1).getType().getName().equals(parent.getName()))) {
+				throw error("Argument " + arg.getName() + " with subtype " + arg.getType().getName()
+						+ " must be preceded by an argument of type " + parent.getName(), pos, column + columns[i]);
+			}
+			args.add(arg);
+		}
+		for (int i = 0; i + 1 < args.size(); i++) {
+			CommandArgument arg = args.get(i);
+			if (arg.isVararg() || arg.consumes()) {
+				throw error("Vararg and consuming arguments must the final argument in the arg list", pos, column);
+			}
+		}
+		String help = null;
 		List<ContextProvider<?>> contextProviders = new ArrayList<>();
 		List<ContextProvider<?>> asserters = new ArrayList<>();
 		String permission = null;
 		String hook = null;
 		SenderType type = SenderType.EVERYONE;
-		List<Command> commands = new ArrayList<>();
-		List<Command> children = new ArrayList<>();
 		boolean hideSub = false;
 		boolean noTab = false;
 		boolean noHelp = false;
 		boolean postArg = false;
-		for (int pos = lineNumber; pos < lines.size(); pos++) {
-			String line = lines.get(pos);
-			if (line.startsWith("//")) {
-				continue;
-			}
-			//New command data
-			if (line.endsWith("{")) {
-				depth++;
-				//Command at same depth, parse and add directly
-				if (depth == 1) {
-					line = line.substring(0, line.length() - 1).trim();
-					String[] split = splitArgs(line);
-					if (split.length == 0) {
-						throw error("Command name not specified", pos);
-					}
-					names = split[0].split(",");
-					for (int i = 1; i < split.length; i++) {
-						if (split[i].startsWith("-") && !split[i].contains(":")) {
-							split[i] = "boolean:" + split[i];
-						}
-						CommandArgument arg = parseArg(split[i], i, pos);
-						if (arg.getName().startsWith("-")) {
-							if (arg.getType().getParent() != null) {
-								throw error("Flags cannot use argument subtypes", pos);
-							}
-							if (arg.isOptional()) {
-								throw error("Flags cannot be marked as optional, they are optional by definition", pos);
-							}
-							if (arg.consumes() || arg.isVararg()) {
-								throw error("Flags cannot be consuming or vararg", pos);
-							}
-							Flag flag = new Flag(arg.getType(), arg.getName(), arg.getPosition(), arg.getDefaultValue(), arg.isContextDefault());
-							for (String name : flag.getNames()) {
-								if (!name.startsWith("-")) {
-									throw error("All flag names and aliases must start with a dash", pos);
-								}
-							}
-							flags.add(flag);
-							continue;
-						}
-						ArgType<?> parent = arg.getType().getParent();
-						if (parent != null && (args.size() > 0 && !args.get(args.size() - 1).getType().getName().equals(parent.getName()))) {
-							throw error("Argument " + arg.getName() + " with subtype " + arg.getType().getName()
-									+ " must be preceded by an argument of type " + parent.getName(), pos);
-						}
-						args.add(arg);
+		boolean async = false;
+		for (CommandNode.Tag tag : node.getTags()) {
+			int tpos = tag.getLine();
+			int tcolumn = tag.getColumn();
+			switch (tag.getName()) {
+				case "help":
+					if (help == null) {
+						help = tagData(tag);
+					} else {
+						help += "\n" + tagData(tag);
 					}
-					for (int i = 0; i + 1 < args.size(); i++) {
-						CommandArgument arg = args.get(i);
-						if (arg.isVararg() || arg.consumes()) {
-							throw error("Vararg and consuming arguments must the final argument in the arg list", pos);
-						}
+					break;
+				case "helpmsg":
+					if (messages == null) {
+						throw error("No Messages supplied, cannot use helpmsg tag", tpos, tcolumn);
 					}
-				//Command one level down, parse and add as child of this command
-				} else if (depth == 2) {
-					children.addAll(fromLines(lines, pos).getCommands());
-				}
-			//Line does not end in { and depth is 1, this is tag data for the current command
-			} else if (depth == 1) {
-				String[] tag = getTag(line);
-				try {
-					switch (tag[0]) {
-						case "help":
-							if (help == null) {
-								help = tag[1];
-							} else {
-								help += "\n" + tag[1];
-							}
-							break;
-						case "helpmsg":
-							if (messages == null) {
-								throw error("No Messages supplied, cannot use helpmsg tag", pos);
-							}
-							help = messages.get(tag[1]).replace("\\n", "\n");
-							break;
-						case "permission":
-							permission = tag[1];
-							break;
-						case "user":
-						case "users":
-							switch (tag[1]) {
-								case "player":
-								case "players":
-									type = SenderType.PLAYER;
-									break;
-								case "console":
-								case "server":
-									type = SenderType.CONSOLE;
-									break;
-								default:
-									type = SenderType.EVERYONE;
-							}
-							break;
-						case "context":
-							contextProviders.clear();
-							String[] split = tag[1].split(" ");
-							int fpos = pos;
-							for (String name : split) {
-								ContextProvider<?> provider = Arrays.stream(this.contextProviders).filter(c -> c.getName().equals(name)).findFirst()
-										.orElseThrow(() -> error("Missing context provider " + name, fpos));
-								contextProviders.add(provider);
-							}
-							break;
-						case "assert":
-							asserters.clear();
-							split = tag[1].split(" ");
-							fpos = pos;
-							for (String name : split) {
-								ContextProvider<?> provider = Arrays.stream(this.contextProviders).filter(c -> c.getName().equals(name)).findFirst()
-										.orElseThrow(() -> error("Missing context provider " + name, fpos));
-								asserters.add(provider);
-							}
-							break;
-						case "hidesub":
-							hideSub = true;
-							break;
-						case "notab":
-							noTab = true;
-							break;
-						case "nohelp":
-							noHelp = true;
-							break;
-						case "hook":
-							hook = tag[1];
+					help = messages.get(tagData(tag)).replace("\\n", "\n");
+					break;
+				case "permission":
+					permission = tagData(tag);
+					break;
+				case "user":
+				case "users":
+					switch (tagData(tag)) {
+						case "player":
+						case "players":
+							type = SenderType.PLAYER;
 							break;
-						case "postarg":
-							if (lineNumber == 0) {
-								throw error("Only subcommands may be post-argument commands", pos);
-							}
-							postArg = true;
+						case "console":
+						case "server":
+							type = SenderType.CONSOLE;
 							break;
+						default:
+							type = SenderType.EVERYONE;
 					}
-				} catch (ArrayIndexOutOfBoundsException ex) {
-					throw error("Missing tag data for tag " + tag[0], pos);
-				}
-			}
-			//End of command data
-			if (line.equals("}")) {
-				depth--;
-				//If depth is now 0, this completes a same-level command. Instantiate and add it.
-				if (depth == 0) {
-					if (children.stream().anyMatch(Command::isPostArg)) {
-						if (args.stream().anyMatch(CommandArgument::isOptional)) {
-							throw error("Commands with optional arguments may not have post-argument children", pos);
-						}
-						if (args.stream().anyMatch(CommandArgument::takesAll)) {
-							throw error("Commands with vararg or consuming arguments may not have post-argument children", pos);
-						}
+					break;
+				case "context":
+					contextProviders.clear();
+					for (String name : tagData(tag).split(" ")) {
+						contextProviders.add(getContextProvider(name, tpos, tcolumn));
+					}
+					break;
+				case "assert":
+					asserters.clear();
+					for (String name : tagData(tag).split(" ")) {
+						asserters.add(getContextProvider(name, tpos, tcolumn));
 					}
-					commands.add(new Command(names, args.toArray(new CommandArgument[args.size()]),
-							flags.toArray(new Flag[flags.size()]),
-							contextProviders.toArray(new ContextProvider<?>[contextProviders.size()]),
-							asserters.toArray(new ContextProvider<?>[asserters.size()]),
-							help, permission, type, hook, children, hideSub, noTab, noHelp, postArg));
-					children = new ArrayList<>();
-					names = null;
-					args = new ArrayList<>();
-					flags = new ArrayList<>();
-					contextProviders = new ArrayList<>();
-					asserters = new ArrayList<>();
-					help = null;
-					permission = null;
-					type = SenderType.EVERYONE;
-					hook = null;
-					hideSub = false;
-					noTab = false;
-					noHelp = false;
-					postArg = false;
-					if (lineNumber != 0) {
-						return new CommandCollection(commands);
+					break;
+				case "hidesub":
+					hideSub = true;
+					break;
+				case "notab":
+					noTab = true;
+					break;
+				case "nohelp":
+					noHelp = true;
+					break;
+				case "hook":
+					hook = tagData(tag);
+					break;
+				case "postarg":
+					if (topLevel) {
+						throw error("Only subcommands may be post-argument commands", tpos, tcolumn);
 					}
+					postArg = true;
+					break;
+				case "async":
+					async = true;
+					break;
+			}
+		}
+		List<Command> children = new ArrayList<>(node.getChildren().size());
+		boolean hasPostArgChild = false;
+		for (CommandNode child : node.getChildren()) {
+			Command command = build(child, false);
+			hasPostArgChild |= command.isPostArg();
+			children.add(command);
+		}
+		if (hasPostArgChild) {
+			for (CommandArgument arg : args) {
+				if (arg.isOptional()) {
+					throw error("Commands with optional arguments may not have post-argument children", pos, column);
+				}
+				if (arg.takesAll()) {
+					throw error("Commands with vararg or consuming arguments may not have post-argument children", pos, column);
 				}
 			}
 		}
-		if (lineNumber == 0) {
-			commands.stream().forEach(c -> c.topLevel = true);
+		return new Command(names, args.toArray(new CommandArgument[args.size()]),
+				flags.toArray(new Flag[flags.size()]),
+				contextProviders.toArray(new ContextProvider<?>[contextProviders.size()]),
+				asserters.toArray(new ContextProvider<?>[asserters.size()]),
+				help, permission, type, hook, children, hideSub, noTab, noHelp, postArg, async);
+	}
+	
+	private String tagData(CommandNode.Tag tag) {
+		if (tag.getValue() == null) {
+			throw error("Missing tag data for tag " + tag.getName(), tag.getLine(), tag.getColumn());
 		}
-		return new CommandCollection(commands);
+		return tag.getValue();
 	}
 	
-	private CommandArgument parseArg(String arg, int argPos, int pos) {
+	private ArgType<?> getArgType(String name) {
+		ArgType<?> type = TypeRegistry.getBuiltInArgType(name);
+		if (type == null) {
+			type = argTypes.get(name);
+		}
+		if (type == null) {
+			type = TypeRegistry.getArgType(plugin, name);
+		}
+		return type;
+	}
+	
+	private ContextProvider<?> getContextProvider(String name, int pos, int column) {
+		ContextProvider<?> provider = TypeRegistry.getBuiltInContextProvider(name);
+		if (provider == null) {
+			provider = contextProviders.get(name);
+		}
+		if (provider == null) {
+			provider = TypeRegistry.getContextProvider(plugin, name);
+		}
+		if (provider == null) {
+			throw error("Missing context provider " + name, pos, column);
+		}
+		return provider;
+	}
+	
+	private CommandArgument parseArg(String arg, int argPos, int pos, int column) {
 		String[] argSplit = arg.split(":");
 		if (argSplit.length != 2) {
-			throw error("Invalid command argument syntax" + arg, pos);
+			throw error("Invalid command argument syntax" + arg, pos, column);
 		}
 		boolean consumes = false;
 		boolean vararg = false;
@@ -319,12 +419,12 @@ public class CommandParser {
 			vararg = true;
 			argSplit[0] = argSplit[0].substring(0, argSplit[0].length() - 2);
 			if (consumes) {
-				throw error("Argument cannot be both consuming and vararg", pos);
+				throw error("Argument cannot be both consuming and vararg", pos, column);
 			}
 		}
-		ArgType<?> argType = Command.getType(argSplit[0], argTypes);
+		ArgType<?> argType = getArgType(argSplit[0]);
 		if (argType == null) {
-			throw error("Missing command argument type " + argSplit[0], pos);
+			throw error("Missing command argument type " + argSplit[0], pos, column);
 		}
 		String name = argSplit[1];
 		boolean hideType = false;
@@ -349,17 +449,16 @@ public class CommandParser {
 				}
 			}
 			if (pdepth != 0) {
-				throw error("Unbalanced parenthesis in argument: " + name, pos);
+				throw error("Unbalanced parenthesis in argument: " + name, pos, column);
 			}
 			if (startIndex + length < name.length()) {
-				throw error("Invalid format for argument " + name + ": Cannot define any argument info after default value (parenthesis)", pos);
+				throw error("Invalid format for argument " + name + ": Cannot define any argument info after default value (parenthesis)", pos, column);
 			}
 			String value = name.substring(startIndex + 1, startIndex + length - 1);
 			name = name.substring(0, startIndex);
 			if (value.startsWith("context ")) {
 				String pname = value.substring(8);
-				ContextProvider<?> provider = Arrays.stream(this.contextProviders).filter(c -> c.getName().equals(pname)).findFirst()
-						.orElseThrow(() -> error("Missing context provider " + pname, pos));
+				ContextProvider<?> provider = getContextProvider(pname, pos, column);
 				defaultValue = c -> provider.provide((Player) c);
 				contextDefault = true;
 			} else {
@@ -389,20 +488,12 @@ public class CommandParser {
 		return carg;
 	}
 	
-	private static String[] getTag(String line) {
-		int index = line.indexOf(' ');
-		if (index == -1) {
-			return new String[] {line};
-		}
-		return new String[] {line.substring(0, index), line.substring(index + 1)};
-	}
-	
 	private static String[] splitArgs(String args) {
 		List<String> split = new ArrayList<>();
-		StringBuilder combine = new StringBuilder();
 		int depth = 0;
-		for (char c : args.toCharArray()) {
-			switch (c) {
+		int start = 0;
+		for (int i = 0; i < args.length(); i++) {
+			switch (args.charAt(i)) {
 				case '(':
 					depth++;
 					break;
@@ -411,17 +502,14 @@ public class CommandParser {
 					break;
 				case ' ':
 					if (depth == 0) {
-						split.add(combine.toString());
-						combine = new StringBuilder();
-					} else {
-						combine.append(c);
+						split.add(args.substring(start, i));
+						start = i + 1;
 					}
-					continue;
+					break;
 			}
-			combine.append(c);
 		}
-		if (combine.length() > 0) {
-			split.add(combine.toString());
+		if (start < args.length()) {
+			split.add(args.substring(start));
 		}
 		return split.toArray(new String[split.size()]);
 	}
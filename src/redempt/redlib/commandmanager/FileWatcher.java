@@ -0,0 +1,218 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Watches command files and message files for changes and reloads them in the background, so they can be edited
+ * while the server is running. Changes are debounced, so a file which is written several times in quick succession
+ * is only reloaded once it has stopped changing. Reloaded messages and commands replace the old ones atomically.
+ * The watcher is closed automatically when its plugin is disabled.
+ */
+public class FileWatcher implements Closeable {
+	
+	private Plugin plugin;
+	private long debounceNanos;
+	private WatchService service;
+	private Thread thread;
+	private Map<Path, Map<Path, Runnable>> watched = new HashMap<>();
+	private Map<Path, Long> pending = new HashMap<>();
+	private volatile boolean closed = false;
+	
+	/**
+	 * Creates a FileWatcher which waits for files to stop changing for 500 milliseconds before reloading them
+	 * @param plugin The plugin the watched files belong to
+	 */
+	public FileWatcher(Plugin plugin) {
+		this(plugin, 500);
+	}
+	
+	/**
+	 * Creates a FileWatcher
+	 * @param plugin The plugin the watched files belong to
+	 * @param debounceMillis How long a file must go without changing before it is reloaded, in milliseconds
+	 */
+	public FileWatcher(Plugin plugin, long debounceMillis) {
+		if (debounceMillis < 0) {
+			throw new IllegalArgumentException("Debounce time cannot be negative");
+		}
+		this.plugin = plugin;
+		this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+		CommandProcessUtils.getPlatform().onDisable(plugin, this::close);
+	}
+	
+	/**
+	 * Reloads messages whenever the file they were loaded from changes
+	 * @param messages The messages to reload
+	 * @return This FileWatcher
+	 * @throws IllegalArgumentException if the messages were not loaded from a file
+	 */
+	public FileWatcher watch(Messages messages) {
+		if (messages.getPath() == null) {
+			throw new IllegalArgumentException("Messages were not loaded from a file");
+		}
+		return watch(messages.getPath(), messages::reload);
+	}
+	
+	/**
+	 * Reloads a registered CommandCollection whenever a command file changes, using {@link CommandCollection#reload(CommandParser)}.
+	 * If the changed file cannot be parsed, the error is logged and the old commands are kept.
+	 * @param path The path to the command file
+	 * @param commands The CommandCollection to reload
+	 * @param parser Creates the parser for the file contents, which should set the same ArgTypes and ContextProviders
+	 *               the commands were originally parsed with
+	 * @return This FileWatcher
+	 */
+	public FileWatcher watch(Path path, CommandCollection commands, Function<InputStream, CommandParser> parser) {
+		return watch(path, () -> {
+			byte[] contents;
+			try {
+				contents = Files.readAllBytes(path);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			commands.reload(parser.apply(new ByteArrayInputStream(contents))).exceptionally(e -> {
+				Logger logger = CommandProcessUtils.getPlatform().getLogger();
+				logger.warning("Could not reload commands from " + path + " for plugin " + plugin.getName() + ", keeping the old commands:");
+				e.printStackTrace();
+				return null;
+			});
+		});
+	}
+	
+	/**
+	 * Runs a task whenever a file changes. The task is run on the watcher thread.
+	 * @param path The path to the file
+	 * @param onChange The task to run
+	 * @return This FileWatcher
+	 * @throws IllegalStateException if this FileWatcher has been closed or the file's directory cannot be watched
+	 */
+	public synchronized FileWatcher watch(Path path, Runnable onChange) {
+		if (closed) {
+			throw new IllegalStateException("FileWatcher has been closed");
+		}
+		path = path.toAbsolutePath().normalize();
+		Path dir = path.getParent();
+		try {
+			if (service == null) {
+				service = FileSystems.getDefault().newWatchService();
+				thread = new Thread(this::run, "RedCommands-FileWatcher-" + plugin.getName());
+				thread.setDaemon(true);
+				thread.start();
+			}
+			if (!watched.containsKey(dir)) {
+				dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not watch " + path, e);
+		}
+		watched.computeIfAbsent(dir, k -> new HashMap<>()).put(path, onChange);
+		return this;
+	}
+	
+	/**
+	 * Stops watching all files
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (service == null) {
+			return;
+		}
+		try {
+			service.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private void run() {
+		try {
+			while (!closed) {
+				WatchKey key = service.poll(nextTimeout(), TimeUnit.NANOSECONDS);
+				if (key != null) {
+					queue(key);
+				}
+				for (Runnable task : due()) {
+					try {
+						task.run();
+					} catch (Exception e) {
+						CommandProcessUtils.getPlatform().getLogger().warning("Could not reload a watched file for plugin " + plugin.getName() + ":");
+						e.printStackTrace();
+					}
+				}
+			}
+		} catch (ClosedWatchServiceException | InterruptedException ignored) {
+		}
+	}
+	
+	private synchronized long nextTimeout() {
+		long now = System.nanoTime();
+		long timeout = TimeUnit.SECONDS.toNanos(1);
+		for (long deadline : pending.values()) {
+			timeout = Math.min(timeout, Math.max(0, deadline - now));
+		}
+		return timeout;
+	}
+	
+	private synchronized void queue(WatchKey key) {
+		Path dir = (Path) key.watchable();
+		Map<Path, Runnable> files = watched.get(dir);
+		long deadline = System.nanoTime() + debounceNanos;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (files == null) {
+				continue;
+			}
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				files.keySet().forEach(p -> pending.put(p, deadline));
+				continue;
+			}
+			Path path = dir.resolve((Path) event.context());
+			if (files.containsKey(path)) {
+				pending.put(path, deadline);
+			}
+		}
+		key.reset();
+	}
+	
+	private synchronized List<Runnable> due() {
+		List<Runnable> tasks = new ArrayList<>();
+		long now = System.nanoTime();
+		pending.entrySet().removeIf(entry -> {
+			if (entry.getValue() - now > 0) {
+				return false;
+			}
+			Runnable task = watched.get(entry.getKey().getParent()).get(entry.getKey());
+			if (task != null) {
+				tasks.add(task);
+			}
+			return true;
+		});
+		return tasks;
+	}
+	
+}
@@ -0,0 +1,259 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link CommandMetrics} which keeps counters and latency histograms in memory. Counters are striped
+ * {@link LongAdder}s, and latencies are kept in log-linear buckets with four buckets per power of two, so
+ * percentiles are accurate to within 25%.
+ */
+public class InMemoryCommandMetrics implements CommandMetrics {
+	
+	private Map<Stage, Map<String, Timer>> timers = new EnumMap<>(Stage.class);
+	
+	public InMemoryCommandMetrics() {
+		for (Stage stage : Stage.values()) {
+			timers.put(stage, new ConcurrentHashMap<>());
+		}
+	}
+	
+	@Override
+	public void record(Stage stage, String key, long nanos, boolean success) {
+		timers.get(stage).computeIfAbsent(key, k -> new Timer()).record(nanos, success);
+	}
+	
+	/**
+	 * Gets the timer for a key
+	 * @param stage The stage the key was recorded for
+	 * @param key The key
+	 * @return The timer, or null if nothing has been recorded for the key
+	 */
+	public Timer getTimer(Stage stage, String key) {
+		return timers.get(stage).get(key);
+	}
+	
+	/**
+	 * @param stage The stage to get the keys for
+	 * @return All keys which have been recorded for the stage
+	 */
+	public Set<String> getKeys(Stage stage) {
+		return timers.get(stage).keySet();
+	}
+	
+	/**
+	 * Clears all recorded metrics
+	 */
+	public void reset() {
+		timers.values().forEach(Map::clear);
+	}
+	
+	/**
+	 * Formats all recorded metrics, with the keys for each stage sorted by total time spent
+	 * @return The lines of the formatted metrics
+	 */
+	public List<String> dump() {
+		List<String> lines = new ArrayList<>();
+		for (Stage stage : Stage.values()) {
+			Map<String, Timer> stageTimers = timers.get(stage);
+			if (stageTimers.isEmpty()) {
+				continue;
+			}
+			lines.add(stage.name().toLowerCase(Locale.ROOT) + ":");
+			List<Map.Entry<String, Timer>> entries = new ArrayList<>(stageTimers.entrySet());
+			entries.sort(Comparator.comparingLong((Map.Entry<String, Timer> e) -> e.getValue().getTotalNanos()).reversed());
+			for (Map.Entry<String, Timer> entry : entries) {
+				Timer timer = entry.getValue();
+				lines.add(String.format(Locale.ROOT, "  %s: count=%d failed=%d mean=%s p50=%s p99=%s max=%s", entry.getKey(),
+						timer.getCount(), timer.getFailures(), formatNanos(timer.getMeanNanos()),
+						formatNanos(timer.getPercentile(0.5)), formatNanos(timer.getPercentile(0.99)), formatNanos(timer.getMaxNanos())));
+			}
+		}
+		return lines;
+	}
+	
+	/**
+	 * Registers a command which shows the recorded metrics, with a reset subcommand to clear them
+	 * @param plugin The plugin to register the command for
+	 * @param name The name of the command
+	 * @param permission The permission required to use the command, or null to allow anyone to use it
+	 */
+	public void registerDumpCommand(Plugin plugin, String name, String permission) {
+		String file = name + " {\n"
+				+ (permission == null ? "" : "permission " + permission + "\n")
+				+ "help Shows command timings\n"
+				+ "hook dump\n"
+				+ "reset {\n"
+				+ "help Clears command timings\n"
+				+ "hook reset\n"
+				+ "}\n"
+				+ "}";
+		new CommandParser(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8))).parse()
+				.register(plugin, plugin.getName().toLowerCase(Locale.ROOT), new DumpListener());
+	}
+	
+	private static String formatNanos(long nanos) {
+		if (nanos < 1000L) {
+			return nanos + "ns";
+		}
+		if (nanos < 1000000L) {
+			return String.format(Locale.ROOT, "%.1fus", nanos / 1000d);
+		}
+		return String.format(Locale.ROOT, "%.2fms", nanos / 1000000d);
+	}
+	
+	private class DumpListener {
+		
+		@CommandHook("dump")
+		public void dump(CommandSender sender) {
+			List<String> lines = InMemoryCommandMetrics.this.dump();
+			if (lines.isEmpty()) {
+				sender.sendMessage("No command metrics recorded");
+				return;
+			}
+			lines.forEach(sender::sendMessage);
+		}
+		
+		@CommandHook("reset")
+		public void reset(CommandSender sender) {
+			InMemoryCommandMetrics.this.reset();
+			sender.sendMessage("Command metrics reset");
+		}
+		
+	}
+	
+	/**
+	 * Counters and a latency histogram for a single key
+	 */
+	public static class Timer {
+		
+		private static final int MIN_EXPONENT = 10;
+		private static final int MAX_EXPONENT = 40;
+		private static final int SUB_BITS = 2;
+		private static final int BUCKETS = ((MAX_EXPONENT - MIN_EXPONENT + 1) << SUB_BITS) + 2;
+		
+		private static int bucketOf(long nanos) {
+			if (nanos < (1L << MIN_EXPONENT)) {
+				return 0;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+			if (exponent > MAX_EXPONENT) {
+				return BUCKETS - 1;
+			}
+			int sub = (int) (nanos >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+			return ((exponent - MIN_EXPONENT) << SUB_BITS) + sub + 1;
+		}
+		
+		private static long upperBoundOf(int bucket) {
+			if (bucket == 0) {
+				return 1L << MIN_EXPONENT;
+			}
+			if (bucket == BUCKETS - 1) {
+				return Long.MAX_VALUE;
+			}
+			int exponent = ((bucket - 1) >> SUB_BITS) + MIN_EXPONENT;
+			int sub = (bucket - 1) & ((1 << SUB_BITS) - 1);
+			long width = 1L << (exponent - SUB_BITS);
+			return (1L << exponent) + (sub + 1) * width;
+		}
+		
+		private LongAdder count = new LongAdder();
+		private LongAdder failures = new LongAdder();
+		private LongAdder total = new LongAdder();
+		private LongAccumulator max = new LongAccumulator(Math::max, 0);
+		private LongAdder[] buckets = new LongAdder[BUCKETS];
+		
+		private Timer() {
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+		
+		private void record(long nanos, boolean success) {
+			count.increment();
+			if (!success) {
+				failures.increment();
+			}
+			total.add(nanos);
+			max.accumulate(nanos);
+			buckets[bucketOf(nanos)].increment();
+		}
+		
+		/**
+		 * @return The number of recorded operations
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+		
+		/**
+		 * @return The number of recorded operations which failed
+		 */
+		public long getFailures() {
+			return failures.sum();
+		}
+		
+		/**
+		 * @return The total time spent in recorded operations, in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return total.sum();
+		}
+		
+		/**
+		 * @return The mean time of recorded operations, in nanoseconds
+		 */
+		public long getMeanNanos() {
+			long count = getCount();
+			return count == 0 ? 0 : getTotalNanos() / count;
+		}
+		
+		/**
+		 * @return The longest time of any recorded operation, in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return max.get();
+		}
+		
+		/**
+		 * Estimates a percentile of the recorded times from the histogram
+		 * @param percentile The percentile, between 0 and 1
+		 * @return The upper bound of the bucket containing the percentile, in nanoseconds, capped at the max time
+		 */
+		public long getPercentile(double percentile) {
+			long[] counts = new long[buckets.length];
+			long sum = 0;
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = buckets[i].sum();
+				sum += counts[i];
+			}
+			if (sum == 0) {
+				return 0;
+			}
+			long target = (long) Math.ceil(sum * percentile);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= target && seen > 0) {
+					return Math.min(upperBoundOf(i), getMaxNanos());
+				}
+			}
+			return getMaxNanos();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,125 @@
+package redempt.redlib.commandmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message compiled into literal text and named placeholders, like {@code %arg%}, so that placeholders can
+ * be filled in a single pass instead of with chained {@link String#replace} calls. Placeholders which are
+ * not given a value are left as they are.
+ */
+public class MessageTemplate {
+	
+	/**
+	 * Compiles a message into a template
+	 * @param message The message, with placeholders in the form {@code %name%}
+	 * @return The compiled template
+	 */
+	public static MessageTemplate compile(String message) {
+		List<String> parts = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		int start = 0;
+		int pos = 0;
+		while ((pos = message.indexOf('%', pos)) != -1) {
+			int end = pos + 1;
+			while (end < message.length() && isNameChar(message.charAt(end))) {
+				end++;
+			}
+			if (end == pos + 1 || end == message.length() || message.charAt(end) != '%') {
+				pos = end;
+				continue;
+			}
+			parts.add(message.substring(start, pos));
+			names.add(message.substring(pos + 1, end));
+			start = end + 1;
+			pos = start;
+		}
+		parts.add(message.substring(start));
+		return new MessageTemplate(message, parts.toArray(new String[0]), names.toArray(new String[0]));
+	}
+	
+	private static boolean isNameChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+	}
+	
+	private String message;
+	private String[] parts;
+	private String[] names;
+	private int literalLength;
+	
+	private MessageTemplate(String message, String[] parts, String[] names) {
+		this.message = message;
+		this.parts = parts;
+		this.names = names;
+		for (String part : parts) {
+			literalLength += part.length();
+		}
+	}
+	
+	/**
+	 * Fills the placeholders in this template
+	 * @param placeholders Alternating placeholder names, without percent signs, and their values, like {@code "arg", "amount", "value", "abc"}
+	 * @return The message with its placeholders filled
+	 */
+	public String format(Object... placeholders) {
+		if (placeholders.length % 2 != 0) {
+			throw new IllegalArgumentException("Placeholders must be given as name and value pairs");
+		}
+		if (names.length == 0) {
+			return message;
+		}
+		StringBuilder builder = new StringBuilder(literalLength + placeholders.length * 8);
+		for (int i = 0; i < names.length; i++) {
+			builder.append(parts[i]);
+			String value = null;
+			for (int j = 0; j < placeholders.length; j += 2) {
+				if (names[i].equals(placeholders[j])) {
+					value = String.valueOf(placeholders[j + 1]);
+					break;
+				}
+			}
+			appendValue(builder, names[i], value);
+		}
+		return builder.append(parts[names.length]).toString();
+	}
+	
+	/**
+	 * Fills the placeholders in this template
+	 * @param placeholders A map of placeholder names, without percent signs, to their values
+	 * @return The message with its placeholders filled
+	 */
+	public String format(Map<String, ?> placeholders) {
+		if (names.length == 0) {
+			return message;
+		}
+		StringBuilder builder = new StringBuilder(literalLength + placeholders.size() * 8);
+		for (int i = 0; i < names.length; i++) {
+			builder.append(parts[i]);
+			Object value = placeholders.get(names[i]);
+			appendValue(builder, names[i], value == null && !placeholders.containsKey(names[i]) ? null : String.valueOf(value));
+		}
+		return builder.append(parts[names.length]).toString();
+	}
+	
+	private static void appendValue(StringBuilder builder, String name, String value) {
+		if (value == null) {
+			builder.append('%').append(name).append('%');
+		} else {
+			builder.append(value);
+		}
+	}
+	
+	/**
+	 * @return The names of the placeholders in this template, in the order they appear
+	 */
+	public String[] getPlaceholders() {
+		return names.clone();
+	}
+	
+	@Override
+	public String toString() {
+		return message;
+	}
+	
+}
@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
@@ -37,25 +38,25 @@ public class Messages {
 	 */
 	public static Messages load(InputStream defaults, Path path) {
 		try {
-			Map<String, String> messages = Files.exists(path) ? parse(Files.readAllLines(path)) : new LinkedHashMap<>();
-			BufferedReader reader = new BufferedReader(new InputStreamReader(defaults));
-			List<String> lines = new ArrayList<>();
-			String line;
-			while ((line = reader.readLine()) != null) {
-				lines.add(line);
-			}
-			Map<String, String> defaultMap = parse(lines);
-			boolean[] missing = {false};
-			defaultMap.forEach((k, v) -> {
-				if (!messages.containsKey(k)) {
-					messages.put(k, v);
-					missing[0] = true;
-				}
-			});
-			if (missing[0]) {
-				write(messages, path);
-			}
-			return new Messages(null, messages, defaultMap);
+			Map<String, String> defaultMap = parse(readLines(defaults));
+			Messages messages = new Messages(null, readMessages(path, defaultMap), defaultMap);
+			messages.path = path;
+			return messages;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Loads only default messages, without reading or writing a file
+	 * @param defaults The InputStream for default messages
+	 * @return The Messages instance with the default messages loaded
+	 */
+	public static Messages load(InputStream defaults) {
+		try {
+			Map<String, String> defaultMap = parse(readLines(defaults));
+			return new Messages(null, new LinkedHashMap<>(defaultMap), defaultMap);
 		} catch (IOException e) {
 			e.printStackTrace();
 			return null;
@@ -120,6 +121,31 @@ public class Messages {
 		return msgs.get(message);
 	}
 	
+	private static Map<String, String> readMessages(Path path, Map<String, String> defaults) throws IOException {
+		Map<String, String> messages = Files.exists(path) ? parse(Files.readAllLines(path)) : new LinkedHashMap<>();
+		boolean[] missing = {false};
+		defaults.forEach((k, v) -> {
+			if (!messages.containsKey(k)) {
+				messages.put(k, v);
+				missing[0] = true;
+			}
+		});
+		if (missing[0]) {
+			write(messages, path);
+		}
+		return messages;
+	}
+	
+	private static List<String> readLines(InputStream stream) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+		List<String> lines = new ArrayList<>();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		return lines;
+	}
+	
 	private static Map<String, String> parse(List<String> input) {
 		Map<String, String> map = new LinkedHashMap<>();
 		for (String s : input) {
@@ -145,9 +171,13 @@ public class Messages {
 	}
 	
 	private Plugin plugin;
-	private Map<String, String> messages;
+	private Path path;
+	private volatile Map<String, String> messages;
 	private Map<String, String> defaults;
 	private UnaryOperator<String> formatter = FormatUtils::color;
+	private volatile int revision;
+	private Map<String, String> formatted = new ConcurrentHashMap<>();
+	private Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 	
 	private Messages(Plugin plugin, Map<String, String> messages, Map<String, String> defaults) {
 		this.messages = messages;
@@ -162,9 +192,50 @@ public class Messages {
 	 */
 	public Messages setFormatter(UnaryOperator<String> formatter) {
 		this.formatter = formatter;
+		invalidate();
+		return this;
+	}
+	
+	/**
+	 * Reloads the messages from the file they were loaded from, writing any missing defaults. Does nothing
+	 * but clear the formatted messages if these messages were not loaded from a file.
+	 * @return Itself
+	 */
+	public Messages reload() {
+		if (path != null) {
+			try {
+				messages = readMessages(path, defaults);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return this;
+			}
+		}
+		invalidate();
 		return this;
 	}
 	
+	private void invalidate() {
+		formatted.clear();
+		templates.clear();
+		revision++;
+	}
+	
+	/**
+	 * Gets the revision of these messages, which changes whenever the formatted messages may have changed.
+	 * Can be used to invalidate anything built from these messages.
+	 * @return The revision of these messages
+	 */
+	public int getRevision() {
+		return revision;
+	}
+	
+	/**
+	 * @return The path of the file these messages were loaded from, or null if they were not loaded from a file
+	 */
+	public Path getPath() {
+		return path;
+	}
+	
 	/**
 	 * @return The plugin these messages belong to
 	 */
@@ -178,11 +249,59 @@ public class Messages {
 	 * @return The message, which has been formatted with {@literal &} as the color character.
 	 */
 	public String get(String msg) {
+		String cached = formatted.get(msg);
+		if (cached != null) {
+			return cached;
+		}
 		String message = messages.getOrDefault(msg, defaults.get(msg));
 		if (message == null) {
 			throw new IllegalArgumentException("Message '" + msg + "' does not have an assigned or default value!");
 		}
-		return formatter.apply(message);
+		int current = revision;
+		message = formatter.apply(message);
+		formatted.put(msg, message);
+		if (revision != current) {
+			formatted.remove(msg);
+		}
+		return message;
+	}
+	
+	/**
+	 * Gets a color-formatted message by name with its placeholders filled in a single pass
+	 * @param msg The name of the message
+	 * @param placeholders Alternating placeholder names, without percent signs, and their values, like {@code "arg", "amount"}
+	 * @return The formatted message
+	 */
+	public String format(String msg, Object... placeholders) {
+		return getTemplate(msg).format(placeholders);
+	}
+	
+	/**
+	 * Gets a color-formatted message by name with its placeholders filled in a single pass
+	 * @param msg The name of the message
+	 * @param placeholders A map of placeholder names, without percent signs, to their values
+	 * @return The formatted message
+	 */
+	public String format(String msg, Map<String, ?> placeholders) {
+		return getTemplate(msg).format(placeholders);
+	}
+	
+	/**
+	 * Gets a color-formatted message by name, compiled into a template so its placeholders can be filled in a single pass
+	 * @param msg The name of the message
+	 * @return The compiled message template
+	 */
+	public MessageTemplate getTemplate(String msg) {
+		MessageTemplate template = templates.get(msg);
+		if (template == null) {
+			int current = revision;
+			template = MessageTemplate.compile(get(msg));
+			templates.put(msg, template);
+			if (revision != current) {
+				templates.remove(msg);
+			}
+		}
+		return template;
 	}
 	
 }
@@ -0,0 +1,197 @@
+package redempt.redlib.commandmanager;
+
+import java.util.function.Function;
+
+/**
+ * An ArgType which converts to a primitive value. Its converter returns null for invalid input rather than
+ * throwing, and method hooks may declare the primitive type itself (or a wider one) as the parameter type.
+ * @param <T> The wrapper type of the primitive this ArgType converts to
+ */
+public class PrimitiveArgType<T> extends ArgType<T> {
+	
+	/**
+	 * Parses an int without throwing an exception for invalid input
+	 * @param str The string to parse
+	 * @return The parsed int, or null if the string is not a valid int
+	 */
+	public static Integer parseInt(String str) {
+		return isIntegral(str, Integer.MIN_VALUE, Integer.MAX_VALUE) ? Integer.parseInt(str) : null;
+	}
+	
+	/**
+	 * Parses a long without throwing an exception for invalid input
+	 * @param str The string to parse
+	 * @return The parsed long, or null if the string is not a valid long
+	 */
+	public static Long parseLong(String str) {
+		return isIntegral(str, Long.MIN_VALUE, Long.MAX_VALUE) ? Long.parseLong(str) : null;
+	}
+	
+	/**
+	 * Parses a double without throwing an exception for invalid input
+	 * @param str The string to parse
+	 * @return The parsed double, or null if the string is not a valid double
+	 */
+	public static Double parseDouble(String str) {
+		if (isDecimal(str)) {
+			return Double.parseDouble(str);
+		}
+		if (!isHex(str)) {
+			return null;
+		}
+		try {
+			return Double.parseDouble(str);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Parses a float without throwing an exception for invalid input
+	 * @param str The string to parse
+	 * @return The parsed float, or null if the string is not a valid float
+	 */
+	public static Float parseFloat(String str) {
+		Double value = parseDouble(str);
+		return value == null ? null : Float.parseFloat(str);
+	}
+	
+	/**
+	 * Parses a boolean, accepting true or false in any case
+	 * @param str The string to parse
+	 * @return The parsed boolean, or null if the string is neither true nor false
+	 */
+	public static Boolean parseBoolean(String str) {
+		if (str.equalsIgnoreCase("true")) {
+			return Boolean.TRUE;
+		}
+		if (str.equalsIgnoreCase("false")) {
+			return Boolean.FALSE;
+		}
+		return null;
+	}
+	
+	private static boolean isIntegral(String str, long min, long max) {
+		int length = str.length();
+		if (length == 0) {
+			return false;
+		}
+		int i = 0;
+		boolean negative = false;
+		char first = str.charAt(0);
+		if (first == '-' || first == '+') {
+			if (length == 1) {
+				return false;
+			}
+			negative = first == '-';
+			i++;
+		}
+		long limit = negative ? min : -max;
+		long multMin = limit / 10;
+		long result = 0;
+		for (; i < length; i++) {
+			int digit = Character.digit(str.charAt(i), 10);
+			if (digit < 0 || result < multMin) {
+				return false;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return false;
+			}
+			result -= digit;
+		}
+		return true;
+	}
+	
+	private static boolean isDecimal(String str) {
+		int start = 0;
+		int end = str.length();
+		while (start < end && str.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && str.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (start < end && (str.charAt(start) == '-' || str.charAt(start) == '+')) {
+			start++;
+		}
+		if (str.startsWith("NaN", start) && start + 3 == end) {
+			return true;
+		}
+		if (str.startsWith("Infinity", start) && start + 8 == end) {
+			return true;
+		}
+		if (end > start) {
+			char last = str.charAt(end - 1);
+			if (last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+				end--;
+			}
+		}
+		int i = start;
+		int digits = 0;
+		while (i < end && isDigit(str.charAt(i))) {
+			i++;
+			digits++;
+		}
+		if (i < end && str.charAt(i) == '.') {
+			i++;
+			while (i < end && isDigit(str.charAt(i))) {
+				i++;
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < end && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) {
+			i++;
+			if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+				i++;
+			}
+			int exponentStart = i;
+			while (i < end && isDigit(str.charAt(i))) {
+				i++;
+			}
+			if (i == exponentStart) {
+				return false;
+			}
+		}
+		return i == end;
+	}
+	
+	private static boolean isHex(String str) {
+		int index = str.indexOf('x');
+		if (index == -1) {
+			index = str.indexOf('X');
+		}
+		return index > 0 && str.charAt(index - 1) == '0';
+	}
+	
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+	
+	private Class<?> primitiveType;
+	
+	/**
+	 * Create a PrimitiveArgType from a name, primitive type, and converter
+	 * @param name The name of this command argument type, to be used in the command file
+	 * @param primitiveType The primitive class this type converts to, like int.class
+	 * @param convert The {@link Function} to convert from a String to the wrapper type. Should return null rather than throwing for invalid input.
+	 */
+	public PrimitiveArgType(String name, Class<?> primitiveType, Function<String, T> convert) {
+		super(name, null, (c, p, s) -> convert.apply(s));
+		if (!primitiveType.isPrimitive() || primitiveType == void.class) {
+			throw new IllegalArgumentException("Class " + primitiveType.getName() + " is not a primitive type");
+		}
+		this.primitiveType = primitiveType;
+	}
+	
+	/**
+	 * @return The primitive class this type converts to, like int.class
+	 */
+	public Class<?> getPrimitiveType() {
+		return primitiveType;
+	}
+	
+}
@@ -0,0 +1,140 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import redempt.redlib.commandmanager.ArgType.CompletionScope;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A size-bounded cache of argument tab completions with a time to live. Completions are cached per command,
+ * argument position, and previous argument value, and per sender for ArgTypes with {@link CompletionScope#PER_SENDER}.
+ * ArgTypes with {@link CompletionScope#VOLATILE} are never cached. Use {@link CommandCollection#setTabCache(TabCompletionCache)} to enable it.
+ */
+public class TabCompletionCache {
+	
+	private long ttl;
+	private int maxSize;
+	private Map<Key, CachedCompletions> entries;
+	
+	/**
+	 * Creates a TabCompletionCache
+	 * @param ttlMillis How long cached completions remain valid, in milliseconds
+	 * @param maxSize The maximum number of completion lists to cache, after which the least recently used are evicted
+	 */
+	public TabCompletionCache(long ttlMillis, int maxSize) {
+		if (ttlMillis <= 0 || maxSize <= 0) {
+			throw new IllegalArgumentException("TTL and max size must be positive");
+		}
+		this.ttl = ttlMillis;
+		this.maxSize = maxSize;
+		entries = new LinkedHashMap<Key, CachedCompletions>(16, 0.75f, true) {
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, CachedCompletions> eldest) {
+				return size() > TabCompletionCache.this.maxSize;
+			}
+			
+		};
+	}
+	
+	/**
+	 * Removes all cached completions
+	 */
+	public synchronized void invalidate() {
+		entries.clear();
+	}
+	
+	/**
+	 * Removes all cached completions for a specific sender
+	 * @param sender The sender to remove cached completions for
+	 */
+	public synchronized void invalidate(CommandSender sender) {
+		String name = sender.getName();
+		entries.keySet().removeIf(k -> name.equals(k.sender));
+	}
+	
+	/**
+	 * Removes all cached completions produced by an ArgType
+	 * @param type The ArgType to remove cached completions for
+	 */
+	public synchronized void invalidate(ArgType<?> type) {
+		entries.keySet().removeIf(k -> k.type == type);
+	}
+	
+	/**
+	 * @return The number of completion lists currently cached, including expired ones which have not been evicted yet
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	protected synchronized List<String> get(Command command, int position, ArgType<?> type, String previous, CommandSender sender) {
+		Key key = new Key(command, position, type, previous, type.getCompletionScope() == CompletionScope.PER_SENDER ? sender.getName() : null);
+		CachedCompletions entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (System.currentTimeMillis() > entry.expiry) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.completions;
+	}
+	
+	protected synchronized void put(Command command, int position, ArgType<?> type, String previous, CommandSender sender, List<String> completions) {
+		Key key = new Key(command, position, type, previous, type.getCompletionScope() == CompletionScope.PER_SENDER ? sender.getName() : null);
+		entries.put(key, new CachedCompletions(Collections.unmodifiableList(completions), System.currentTimeMillis() + ttl));
+	}
+	
+	private static class Key {
+		
+		private Command command;
+		private int position;
+		private ArgType<?> type;
+		private String previous;
+		private String sender;
+		private int hash;
+		
+		public Key(Command command, int position, ArgType<?> type, String previous, String sender) {
+			this.command = command;
+			this.position = position;
+			this.type = type;
+			this.previous = previous;
+			this.sender = sender;
+			hash = Objects.hash(System.identityHashCode(command), position, System.identityHashCode(type), previous, sender);
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return key.command == command && key.position == position && key.type == type
+					&& Objects.equals(key.previous, previous) && Objects.equals(key.sender, sender);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+	}
+	
+	private static class CachedCompletions {
+		
+		private List<String> completions;
+		private long expiry;
+		
+		public CachedCompletions(List<String> completions, long expiry) {
+			this.completions = completions;
+			this.expiry = expiry;
+		}
+		
+	}
+	
+}
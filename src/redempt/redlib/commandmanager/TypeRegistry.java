@@ -0,0 +1,177 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes ArgTypes and ContextProviders by name so command files can resolve them without searching. The built-in
+ * types and providers are always available. Each plugin can register its own into a namespace named after the plugin,
+ * where they can be used by any {@link CommandParser} given that plugin with {@link CommandParser#setPlugin(Plugin)},
+ * and by other plugins by qualifying the name with the namespace, like {@code myplugin.region:name}. A plugin's
+ * namespace is cleared when it is disabled.
+ */
+public class TypeRegistry {
+	
+	private static Map<String, ArgType<?>> builtInTypes = new HashMap<>();
+	private static Map<String, ContextProvider<?>> builtInProviders = new HashMap<>();
+	private static Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+	
+	static {
+		for (ArgType<?> type : CommandProcessUtils.getBaseArgTypes()) {
+			builtInTypes.put(type.getName(), type);
+		}
+		builtInProviders.put(ContextProvider.self.getName(), ContextProvider.self);
+	}
+	
+	/**
+	 * Registers ArgTypes in a plugin's namespace
+	 * @param plugin The plugin registering the types
+	 * @param types The types to register
+	 * @throws IllegalArgumentException if a type has the same name as a built-in type or a different type already
+	 * registered by the plugin, or its name contains a period or colon
+	 */
+	public static void registerArgTypes(Plugin plugin, ArgType<?>... types) {
+		Namespace namespace = getNamespace(plugin);
+		for (ArgType<?> type : types) {
+			if (type == null) {
+				throw new IllegalArgumentException("Command argument types cannot be null!");
+			}
+			checkName(type.getName());
+			if (builtInTypes.containsKey(type.getName())) {
+				throw new IllegalArgumentException("ArgType " + type.getName() + " has the same name as a built-in type");
+			}
+			ArgType<?> existing = namespace.types.putIfAbsent(type.getName(), type);
+			if (existing != null && existing != type) {
+				throw new IllegalArgumentException("An ArgType named " + type.getName() + " is already registered for plugin " + plugin.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Registers ContextProviders in a plugin's namespace
+	 * @param plugin The plugin registering the providers
+	 * @param providers The providers to register
+	 * @throws IllegalArgumentException if a provider has the same name as a built-in provider or a different provider
+	 * already registered by the plugin, or its name contains a period or colon
+	 */
+	public static void registerContextProviders(Plugin plugin, ContextProvider<?>... providers) {
+		Namespace namespace = getNamespace(plugin);
+		for (ContextProvider<?> provider : providers) {
+			if (provider == null) {
+				throw new IllegalArgumentException("Context providers cannot be null!");
+			}
+			checkName(provider.getName());
+			if (builtInProviders.containsKey(provider.getName())) {
+				throw new IllegalArgumentException("ContextProvider " + provider.getName() + " has the same name as a built-in provider");
+			}
+			ContextProvider<?> existing = namespace.providers.putIfAbsent(provider.getName(), provider);
+			if (existing != null && existing != provider) {
+				throw new IllegalArgumentException("A ContextProvider named " + provider.getName() + " is already registered for plugin " + plugin.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Gets a built-in ArgType, like int or player
+	 * @param name The name of the type
+	 * @return The type, or null if there is no built-in type by that name
+	 */
+	public static ArgType<?> getBuiltInArgType(String name) {
+		return builtInTypes.get(name);
+	}
+	
+	/**
+	 * Gets a built-in ContextProvider, like self
+	 * @param name The name of the provider
+	 * @return The provider, or null if there is no built-in provider by that name
+	 */
+	public static ContextProvider<?> getBuiltInContextProvider(String name) {
+		return builtInProviders.get(name);
+	}
+	
+	/**
+	 * Gets an ArgType by name, checking the built-in types, then the types registered by the plugin, then the
+	 * namespace the name is qualified with if it has one
+	 * @param plugin The plugin whose types should be checked, or null to only check built-in types and qualified names
+	 * @param name The name of the type
+	 * @return The type, or null if none was found
+	 */
+	public static ArgType<?> getArgType(Plugin plugin, String name) {
+		ArgType<?> type = builtInTypes.get(name);
+		if (type != null) {
+			return type;
+		}
+		Namespace namespace = plugin == null ? null : namespaces.get(key(plugin));
+		if (namespace != null && (type = namespace.types.get(name)) != null) {
+			return type;
+		}
+		int dot = name.lastIndexOf('.');
+		if (dot == -1) {
+			return null;
+		}
+		namespace = namespaces.get(name.substring(0, dot).toLowerCase(Locale.ROOT));
+		return namespace == null ? null : namespace.types.get(name.substring(dot + 1));
+	}
+	
+	/**
+	 * Gets a ContextProvider by name, checking the built-in providers, then the providers registered by the plugin,
+	 * then the namespace the name is qualified with if it has one
+	 * @param plugin The plugin whose providers should be checked, or null to only check built-in providers and qualified names
+	 * @param name The name of the provider
+	 * @return The provider, or null if none was found
+	 */
+	public static ContextProvider<?> getContextProvider(Plugin plugin, String name) {
+		ContextProvider<?> provider = builtInProviders.get(name);
+		if (provider != null) {
+			return provider;
+		}
+		Namespace namespace = plugin == null ? null : namespaces.get(key(plugin));
+		if (namespace != null && (provider = namespace.providers.get(name)) != null) {
+			return provider;
+		}
+		int dot = name.lastIndexOf('.');
+		if (dot == -1) {
+			return null;
+		}
+		namespace = namespaces.get(name.substring(0, dot).toLowerCase(Locale.ROOT));
+		return namespace == null ? null : namespace.providers.get(name.substring(dot + 1));
+	}
+	
+	/**
+	 * Removes all ArgTypes and ContextProviders registered by a plugin. Called automatically when the plugin is disabled.
+	 * @param plugin The plugin
+	 */
+	public static void unregister(Plugin plugin) {
+		namespaces.remove(key(plugin));
+	}
+	
+	private static Namespace getNamespace(Plugin plugin) {
+		return namespaces.computeIfAbsent(key(plugin), k -> {
+			CommandProcessUtils.getPlatform().onDisable(plugin, () -> namespaces.remove(k));
+			return new Namespace();
+		});
+	}
+	
+	private static String key(Plugin plugin) {
+		return plugin.getName().toLowerCase(Locale.ROOT);
+	}
+	
+	private static void checkName(String name) {
+		if (name.indexOf('.') != -1 || name.indexOf(':') != -1) {
+			throw new IllegalArgumentException("Name " + name + " cannot contain a period or colon");
+		}
+	}
+	
+	private static class Namespace {
+		
+		private Map<String, ArgType<?>> types = new ConcurrentHashMap<>();
+		private Map<String, ContextProvider<?>> providers = new ConcurrentHashMap<>();
+		
+	}
+	
+}
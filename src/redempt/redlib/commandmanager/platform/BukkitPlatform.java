@@ -0,0 +1,166 @@
+package redempt.redlib.commandmanager.platform;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import redempt.redlib.commandmanager.Messages;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+import redempt.redlib.commandmanager.processing.UnregisterListener;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+/**
+ * The {@link CommandPlatform} for a running Bukkit server. The command map is looked up the first time a command
+ * is registered, rather than when the command manager is loaded. Tasks run when a plugin is disabled share a single
+ * listener per plugin. Asynchronous tab completions are delivered through Paper's AsyncTabCompleteEvent where it
+ * exists, found reflectively.
+ */
+public class BukkitPlatform implements CommandPlatform {
+	
+	private static Class<? extends Event> asyncTabEvent;
+	private static Method getSender;
+	private static Method getBuffer;
+	private static Method isCommand;
+	private static Method isHandled;
+	private static Method setHandled;
+	private static Method setCompletions;
+	
+	static {
+		try {
+			asyncTabEvent = Class.forName("com.destroystokyo.paper.event.server.AsyncTabCompleteEvent").asSubclass(Event.class);
+			getSender = asyncTabEvent.getMethod("getSender");
+			getBuffer = asyncTabEvent.getMethod("getBuffer");
+			isCommand = asyncTabEvent.getMethod("isCommand");
+			isHandled = asyncTabEvent.getMethod("isHandled");
+			setHandled = asyncTabEvent.getMethod("setHandled", boolean.class);
+			setCompletions = asyncTabEvent.getMethod("setCompletions", List.class);
+		} catch (ClassNotFoundException | NoSuchMethodException e) {
+			asyncTabEvent = null;
+		}
+	}
+	
+	/**
+	 * @return Whether the server fires Paper's AsyncTabCompleteEvent
+	 */
+	public static boolean isAsyncTabEventSupported() {
+		return asyncTabEvent != null;
+	}
+	
+	private SimpleCommandMap commandMap;
+	private Map<String, Command> knownCommands;
+	private Map<Plugin, List<Runnable>> disableTasks = new ConcurrentHashMap<>();
+	
+	private synchronized SimpleCommandMap getCommandMap() {
+		if (commandMap == null) {
+			commandMap = CommandProcessUtils.getCommandMap();
+			knownCommands = CommandProcessUtils.getKnownCommands(commandMap);
+		}
+		return commandMap;
+	}
+	
+	@Override
+	public void registerCommand(String prefix, Command command) {
+		getCommandMap().register(prefix, command);
+	}
+	
+	@Override
+	public void registerCommands(String prefix, List<Command> commands) {
+		getCommandMap().registerAll(prefix, commands);
+	}
+	
+	@Override
+	public void unregisterCommand(String label) {
+		getCommandMap();
+		knownCommands.remove(label);
+	}
+	
+	@Override
+	public void listenAsyncTab(Plugin plugin, BiFunction<CommandSender, String, List<String>> completer) {
+		if (asyncTabEvent == null) {
+			return;
+		}
+		Bukkit.getPluginManager().registerEvent(asyncTabEvent, new Listener() {}, EventPriority.NORMAL, (l, e) -> {
+			if (!asyncTabEvent.isInstance(e)) {
+				return;
+			}
+			try {
+				if (!(boolean) isCommand.invoke(e) || (boolean) isHandled.invoke(e)) {
+					return;
+				}
+				String buffer = (String) getBuffer.invoke(e);
+				if (buffer.startsWith("/")) {
+					buffer = buffer.substring(1);
+				}
+				List<String> completions = completer.apply((CommandSender) getSender.invoke(e), buffer);
+				if (completions != null) {
+					setCompletions.invoke(e, completions);
+					setHandled.invoke(e, true);
+				}
+			} catch (ReflectiveOperationException ex) {
+				ex.printStackTrace();
+			}
+		}, plugin);
+	}
+	
+	@Override
+	public void onDisable(Plugin plugin, Runnable task) {
+		disableTasks.computeIfAbsent(plugin, k -> {
+			new UnregisterListener(plugin, () -> disableTasks.remove(plugin).forEach(Runnable::run));
+			return Collections.synchronizedList(new ArrayList<>());
+		}).add(task);
+	}
+	
+	@Override
+	public Plugin getProvidingPlugin(Class<?> clazz) {
+		Plugin plugin = JavaPlugin.getProvidingPlugin(clazz);
+		return plugin.isEnabled() ? plugin : Bukkit.getPluginManager().getPlugin(plugin.getName());
+	}
+	
+	@Override
+	public Messages loadMessages(InputStream defaults) {
+		return Messages.load(defaults, Paths.get("plugins/RedLib/command-format.txt"));
+	}
+	
+	@Override
+	public void runSync(Plugin plugin, Runnable task) {
+		Bukkit.getScheduler().runTask(plugin, task);
+	}
+	
+	@Override
+	public boolean isPrimaryThread() {
+		return Bukkit.isPrimaryThread();
+	}
+	
+	@Override
+	public Logger getLogger() {
+		return Bukkit.getLogger();
+	}
+	
+	@Override
+	public Player getPlayer(String name) {
+		return Bukkit.getPlayerExact(name);
+	}
+	
+	@Override
+	public Collection<? extends Player> getOnlinePlayers() {
+		return Bukkit.getOnlinePlayers();
+	}
+	
+}
@@ -0,0 +1,102 @@
+package redempt.redlib.commandmanager.platform;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.Messages;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+/**
+ * The server functionality the command manager depends on. Defaults to {@link BukkitPlatform}, and can be replaced
+ * with {@link redempt.redlib.commandmanager.processing.CommandProcessUtils#setPlatform(CommandPlatform)} before any
+ * commands are parsed, for example with an {@link InMemoryPlatform} to run commands without a server.
+ */
+public interface CommandPlatform {
+	
+	/**
+	 * Registers a command so it can be run by senders
+	 * @param prefix The fallback prefix of the command
+	 * @param command The command to register
+	 */
+	public void registerCommand(String prefix, Command command);
+	
+	/**
+	 * Registers several commands with the same fallback prefix. A convenience for inserting a batch of commands,
+	 * which is no faster than registering them one by one
+	 * @param prefix The fallback prefix of the commands
+	 * @param commands The commands to register
+	 */
+	public void registerCommands(String prefix, List<Command> commands);
+	
+	/**
+	 * Removes a registered command label
+	 * @param label The label to remove
+	 */
+	public void unregisterCommand(String label);
+	
+	/**
+	 * Listens for tab completions which the server lets plugins compute off the main thread, like Paper's
+	 * AsyncTabCompleteEvent. Does nothing if the server does not support them.
+	 * @param plugin The plugin the listener belongs to
+	 * @param completer Gets the completions for a sender and the command line they typed without its leading slash,
+	 *                  or null if the command line is not handled
+	 */
+	public void listenAsyncTab(Plugin plugin, BiFunction<CommandSender, String, List<String>> completer);
+	
+	/**
+	 * Runs a task when a plugin is disabled
+	 * @param plugin The plugin
+	 * @param task The task to run
+	 */
+	public void onDisable(Plugin plugin, Runnable task);
+	
+	/**
+	 * Gets the plugin which provides a class
+	 * @param clazz The class
+	 * @return The plugin which provides the class, or null if it could not be determined
+	 */
+	public Plugin getProvidingPlugin(Class<?> clazz);
+	
+	/**
+	 * Loads the messages used by the command manager itself
+	 * @param defaults The default messages
+	 * @return The loaded messages
+	 */
+	public Messages loadMessages(InputStream defaults);
+	
+	/**
+	 * Runs a task on the main thread
+	 * @param plugin The plugin the task belongs to
+	 * @param task The task to run
+	 */
+	public void runSync(Plugin plugin, Runnable task);
+	
+	/**
+	 * @return Whether the calling thread is the main thread
+	 */
+	public boolean isPrimaryThread();
+	
+	/**
+	 * @return The logger for warnings from the command manager
+	 */
+	public Logger getLogger();
+	
+	/**
+	 * Gets an online player by their exact name
+	 * @param name The name of the player
+	 * @return The player, or null if no player by that name is online
+	 */
+	public Player getPlayer(String name);
+	
+	/**
+	 * @return All online players
+	 */
+	public Collection<? extends Player> getOnlinePlayers();
+	
+}
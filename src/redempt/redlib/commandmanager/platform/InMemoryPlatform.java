@@ -0,0 +1,365 @@
+package redempt.redlib.commandmanager.platform;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+import org.bukkit.plugin.Plugin;
+import redempt.redlib.commandmanager.Messages;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * A {@link CommandPlatform} which keeps everything in memory, so commands can be registered, dispatched and tab
+ * completed on a plain JVM without a server. Senders and players are simulated, tasks scheduled for the main thread
+ * are queued until {@link #runTasks()} is called, and the thread which created the platform is the main thread.
+ */
+public class InMemoryPlatform implements CommandPlatform {
+	
+	private Map<String, Command> commands = new ConcurrentHashMap<>();
+	private Map<Plugin, List<Runnable>> disableTasks = new ConcurrentHashMap<>();
+	private Map<Plugin, List<BiFunction<CommandSender, String, List<String>>>> asyncTabListeners = new ConcurrentHashMap<>();
+	private Map<String, Player> players = new ConcurrentHashMap<>();
+	private Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private Logger logger = Logger.getLogger("RedCommands");
+	private Thread primaryThread = Thread.currentThread();
+	private Plugin plugin = createPlugin("RedCommands");
+	
+	/**
+	 * Sets the plugin which will be treated as providing every class, and so will own commands registered without
+	 * specifying a plugin
+	 * @param plugin The plugin
+	 * @return This InMemoryPlatform
+	 */
+	public InMemoryPlatform setPlugin(Plugin plugin) {
+		this.plugin = plugin;
+		return this;
+	}
+	
+	/**
+	 * Creates a simulated plugin, which is always enabled
+	 * @param name The name of the plugin
+	 * @return The plugin
+	 */
+	public Plugin createPlugin(String name) {
+		return proxy(Plugin.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getName":
+					return name;
+				case "isEnabled":
+					return true;
+				case "getLogger":
+					return logger;
+				default:
+					return handleDefault(proxy, method.getName(), method.getReturnType(), args, name);
+			}
+		});
+	}
+	
+	/**
+	 * Creates a simulated sender
+	 * @param name The name of the sender
+	 * @param permissions Determines which permissions the sender has
+	 * @param messages Receives every message sent to the sender
+	 * @return The sender
+	 */
+	public CommandSender createSender(String name, Predicate<String> permissions, Consumer<String> messages) {
+		return proxy(CommandSender.class, senderHandler(name, permissions, messages));
+	}
+	
+	/**
+	 * Creates a simulated player and adds it to the online players
+	 * @param name The name of the player
+	 * @param permissions Determines which permissions the player has
+	 * @param messages Receives every message sent to the player
+	 * @return The player
+	 */
+	public Player createPlayer(String name, Predicate<String> permissions, Consumer<String> messages) {
+		UUID id = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+		InvocationHandler sender = senderHandler(name, permissions, messages);
+		Player player = proxy(Player.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getUniqueId":
+					return id;
+				case "getDisplayName":
+				case "getPlayerListName":
+					return name;
+				case "isOnline":
+					return players.get(name.toLowerCase(Locale.ROOT)) == proxy;
+				default:
+					return sender.invoke(proxy, method, args);
+			}
+		});
+		players.put(name.toLowerCase(Locale.ROOT), player);
+		return player;
+	}
+	
+	/**
+	 * Removes a simulated player from the online players
+	 * @param player The player to remove
+	 */
+	public void removePlayer(Player player) {
+		players.remove(player.getName().toLowerCase(Locale.ROOT), player);
+	}
+	
+	/**
+	 * Runs a command line as a sender, the same way the server would if the sender typed it
+	 * @param sender The sender running the command
+	 * @param commandLine The command line, with or without a leading slash
+	 * @return Whether a command was found for the label
+	 */
+	public boolean dispatch(CommandSender sender, String commandLine) {
+		if (commandLine.startsWith("/")) {
+			commandLine = commandLine.substring(1);
+		}
+		String[] split = commandLine.split(" ");
+		Command command = getCommand(split[0]);
+		if (command == null) {
+			return false;
+		}
+		command.execute(sender, split[0], Arrays.copyOfRange(split, 1, split.length));
+		return true;
+	}
+	
+	/**
+	 * Tab completes a partial command line as a sender, the same way the server would if the sender pressed tab
+	 * @param sender The sender completing the command
+	 * @param commandLine The partial command line, with or without a leading slash
+	 * @return The completions, or an empty list if no command was found for the label
+	 */
+	public List<String> tabComplete(CommandSender sender, String commandLine) {
+		if (commandLine.startsWith("/")) {
+			commandLine = commandLine.substring(1);
+		}
+		String[] split = commandLine.split(" ", -1);
+		Command command = getCommand(split[0]);
+		if (command == null || split.length == 1) {
+			return new ArrayList<>();
+		}
+		return command.tabComplete(sender, split[0], Arrays.copyOfRange(split, 1, split.length));
+	}
+	
+	/**
+	 * Tab completes a partial command line as a sender through the listeners registered with
+	 * {@link #listenAsyncTab(Plugin, BiFunction)}, the same way Paper's AsyncTabCompleteEvent would. Runs the
+	 * listeners on the calling thread.
+	 * @param sender The sender completing the command
+	 * @param commandLine The partial command line, with or without a leading slash
+	 * @return The completions of the first listener which handled the command line, or null if none did
+	 */
+	public List<String> asyncTabComplete(CommandSender sender, String commandLine) {
+		if (commandLine.startsWith("/")) {
+			commandLine = commandLine.substring(1);
+		}
+		for (List<BiFunction<CommandSender, String, List<String>>> listeners : asyncTabListeners.values()) {
+			for (BiFunction<CommandSender, String, List<String>> listener : listeners) {
+				List<String> completions = listener.apply(sender, commandLine);
+				if (completions != null) {
+					return completions;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Gets a registered command by one of its labels
+	 * @param label The label, which may include the fallback prefix
+	 * @return The command, or null if none is registered with the label
+	 */
+	public Command getCommand(String label) {
+		return commands.get(label.toLowerCase(Locale.ROOT));
+	}
+	
+	/**
+	 * Simulates a plugin being disabled, running all tasks registered with {@link #onDisable(Plugin, Runnable)} for it
+	 * @param plugin The plugin to disable
+	 */
+	public void disable(Plugin plugin) {
+		asyncTabListeners.remove(plugin);
+		List<Runnable> tasks = disableTasks.remove(plugin);
+		if (tasks != null) {
+			tasks.forEach(Runnable::run);
+		}
+	}
+	
+	/**
+	 * Runs all tasks which have been scheduled for the main thread
+	 * @return The number of tasks run
+	 */
+	public int runTasks() {
+		int count = 0;
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			task.run();
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Sets the thread which is considered the main thread
+	 * @param thread The main thread
+	 * @return This InMemoryPlatform
+	 */
+	public InMemoryPlatform setPrimaryThread(Thread thread) {
+		this.primaryThread = thread;
+		return this;
+	}
+	
+	@Override
+	public void registerCommand(String prefix, Command command) {
+		prefix = prefix.toLowerCase(Locale.ROOT).trim();
+		List<String> labels = new ArrayList<>();
+		labels.add(command.getName());
+		labels.addAll(command.getAliases());
+		for (String label : labels) {
+			label = label.toLowerCase(Locale.ROOT).trim();
+			commands.put(prefix + ":" + label, command);
+			commands.putIfAbsent(label, command);
+		}
+	}
+	
+	@Override
+	public void registerCommands(String prefix, List<Command> commands) {
+		commands.forEach(c -> registerCommand(prefix, c));
+	}
+	
+	@Override
+	public void unregisterCommand(String label) {
+		commands.remove(label.toLowerCase(Locale.ROOT));
+	}
+	
+	@Override
+	public void listenAsyncTab(Plugin plugin, BiFunction<CommandSender, String, List<String>> completer) {
+		asyncTabListeners.computeIfAbsent(plugin, k -> new CopyOnWriteArrayList<>()).add(completer);
+	}
+	
+	@Override
+	public void onDisable(Plugin plugin, Runnable task) {
+		disableTasks.computeIfAbsent(plugin, k -> Collections.synchronizedList(new ArrayList<>())).add(task);
+	}
+	
+	@Override
+	public Plugin getProvidingPlugin(Class<?> clazz) {
+		return plugin;
+	}
+	
+	@Override
+	public Messages loadMessages(InputStream defaults) {
+		return Messages.load(defaults);
+	}
+	
+	@Override
+	public void runSync(Plugin plugin, Runnable task) {
+		tasks.add(task);
+	}
+	
+	@Override
+	public boolean isPrimaryThread() {
+		return Thread.currentThread() == primaryThread;
+	}
+	
+	@Override
+	public Logger getLogger() {
+		return logger;
+	}
+	
+	@Override
+	public Player getPlayer(String name) {
+		return players.get(name.toLowerCase(Locale.ROOT));
+	}
+	
+	@Override
+	public Collection<? extends Player> getOnlinePlayers() {
+		return Collections.unmodifiableCollection(players.values());
+	}
+	
+	private InvocationHandler senderHandler(String name, Predicate<String> permissions, Consumer<String> messages) {
+		return (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getName":
+					return name;
+				case "hasPermission":
+					return permissions.test(args[0] instanceof Permission ? ((Permission) args[0]).getName() : (String) args[0]);
+				case "isPermissionSet":
+					return true;
+				case "sendMessage":
+					for (Object arg : args) {
+						if (arg instanceof String) {
+							messages.accept((String) arg);
+						} else if (arg instanceof String[]) {
+							Arrays.stream((String[]) arg).forEach(messages);
+						}
+					}
+					return null;
+				default:
+					return handleDefault(proxy, method.getName(), method.getReturnType(), args, name);
+			}
+		};
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> clazz, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(InMemoryPlatform.class.getClassLoader(), new Class<?>[] {clazz}, handler);
+	}
+	
+	private static Object handleDefault(Object proxy, String method, Class<?> type, Object[] args, String name) {
+		switch (method) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return name;
+		}
+		if (!type.isPrimitive()) {
+			return null;
+		}
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == char.class) {
+			return '\0';
+		}
+		if (type == byte.class) {
+			return (byte) 0;
+		}
+		if (type == short.class) {
+			return (short) 0;
+		}
+		if (type == int.class) {
+			return 0;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (type == float.class) {
+			return 0f;
+		}
+		if (type == double.class) {
+			return 0d;
+		}
+		return null;
+	}
+	
+}
@@ -0,0 +1,273 @@
+package redempt.redlib.commandmanager.processing;
+
+import java.util.Arrays;
+
+/**
+ * Splits command input into arguments, respecting quotes and backslash escapes. The unescaped text
+ * of all tokens is written into one reusable buffer and tokens are stored as offsets into it, with
+ * their quoted state kept in a bitset, so tokenizing does not create any objects per token.
+ * An instance can be reused for any number of inputs, but is not thread-safe. Use {@link #acquire()} to reuse
+ * one instance per thread.
+ */
+public class ArgTokenizer {
+	
+	private static final ThreadLocal<ArgTokenizer> local = ThreadLocal.withInitial(ArgTokenizer::new);
+	
+	/**
+	 * Gets the tokenizer for the calling thread, which must be given back with {@link #release()} once its tokens
+	 * are no longer needed. If the thread's tokenizer is still in use further up the stack, for example when a
+	 * command is run from inside another, a new one is returned instead.
+	 * @return A tokenizer which is not in use
+	 */
+	public static ArgTokenizer acquire() {
+		ArgTokenizer tokenizer = local.get();
+		if (tokenizer.inUse) {
+			return new ArgTokenizer();
+		}
+		tokenizer.inUse = true;
+		return tokenizer;
+	}
+	
+	private boolean inUse;
+	private char[] input = new char[64];
+	private int inputLength;
+	private int[] argOffsets = new int[8];
+	private int argCount;
+	
+	private char[] buffer = new char[64];
+	private int length;
+	private int[] starts = new int[8];
+	private int[] ends = new int[8];
+	private int[] sources = new int[8];
+	private long[] quoted = new long[1];
+	private int count;
+	
+	/**
+	 * Tokenizes a full input string
+	 * @param input The input to split
+	 * @return Itself
+	 */
+	public ArgTokenizer tokenize(CharSequence input) {
+		argCount = 0;
+		inputLength = 0;
+		appendArg(input);
+		return split();
+	}
+	
+	/**
+	 * Tokenizes arguments as they were split by the server, treating each boundary between them as a space
+	 * @param args The arguments to split
+	 * @return Itself
+	 */
+	public ArgTokenizer tokenize(String[] args) {
+		argCount = 0;
+		inputLength = 0;
+		for (int i = 0; i < args.length; i++) {
+			if (i != 0) {
+				ensureInput(1);
+				input[inputLength++] = ' ';
+			}
+			appendArg(args[i]);
+		}
+		return split();
+	}
+	
+	private void appendArg(CharSequence arg) {
+		if (argCount == argOffsets.length) {
+			argOffsets = Arrays.copyOf(argOffsets, argCount * 2);
+		}
+		argOffsets[argCount++] = inputLength;
+		int len = arg.length();
+		ensureInput(len);
+		if (arg instanceof String) {
+			((String) arg).getChars(0, len, input, inputLength);
+			inputLength += len;
+			return;
+		}
+		for (int i = 0; i < len; i++) {
+			input[inputLength++] = arg.charAt(i);
+		}
+	}
+	
+	private void ensureInput(int extra) {
+		if (inputLength + extra > input.length) {
+			input = Arrays.copyOf(input, Math.max(input.length * 2, inputLength + extra));
+		}
+	}
+	
+	private ArgTokenizer split() {
+		if (buffer.length < inputLength) {
+			buffer = new char[Math.max(buffer.length * 2, inputLength)];
+		}
+		Arrays.fill(quoted, 0);
+		count = 0;
+		length = 0;
+		int tokenStart = 0;
+		int source = 0;
+		boolean quotes = false;
+		for (int i = 0; i < inputLength; i++) {
+			char c = input[i];
+			if (c == '\\' && i + 1 < inputLength) {
+				i++;
+				c = input[i];
+			} else if (c == '"') {
+				quotes = !quotes;
+				if (length > tokenStart) {
+					add(tokenStart, source, !quotes);
+					tokenStart = length;
+				}
+				continue;
+			} else if (c == ' ' && !quotes) {
+				if (length > tokenStart) {
+					add(tokenStart, source, false);
+					tokenStart = length;
+				}
+				continue;
+			}
+			if (length == tokenStart) {
+				while (source + 1 < argCount && argOffsets[source + 1] <= i) {
+					source++;
+				}
+			}
+			buffer[length++] = c;
+		}
+		if (length > tokenStart) {
+			add(tokenStart, source, false);
+		}
+		return this;
+	}
+	
+	private void add(int start, int source, boolean isQuoted) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+			sources = Arrays.copyOf(sources, count * 2);
+		}
+		if ((count >> 6) >= quoted.length) {
+			quoted = Arrays.copyOf(quoted, quoted.length * 2);
+		}
+		starts[count] = start;
+		ends[count] = length;
+		sources[count] = source;
+		if (isQuoted) {
+			quoted[count >> 6] |= 1L << count;
+		}
+		count++;
+	}
+	
+	/**
+	 * Gives back a tokenizer returned by {@link #acquire()} so it can be reused by its thread
+	 */
+	public void release() {
+		inUse = false;
+	}
+	
+	/**
+	 * Moves a token to a lower index, overwriting the token there, so tokens can be filtered in place
+	 * @param from The index of the token to move
+	 * @param to The index to move it to, which must not be greater than the index it is moved from
+	 */
+	public void move(int from, int to) {
+		checkIndex(from);
+		if (to < 0 || to > from) {
+			throw new IndexOutOfBoundsException("Cannot move token " + from + " to " + to);
+		}
+		if (from == to) {
+			return;
+		}
+		starts[to] = starts[from];
+		ends[to] = ends[from];
+		sources[to] = sources[from];
+		if (isQuoted(from)) {
+			quoted[to >> 6] |= 1L << to;
+		} else {
+			quoted[to >> 6] &= ~(1L << to);
+		}
+	}
+	
+	/**
+	 * Appends the text of a token to a builder without creating a string for it
+	 * @param token The index of the token
+	 * @param builder The builder to append to
+	 */
+	public void appendTo(int token, StringBuilder builder) {
+		checkIndex(token);
+		builder.append(buffer, starts[token], ends[token] - starts[token]);
+	}
+	
+	/**
+	 * @return The number of tokens in the last input
+	 */
+	public int size() {
+		return count;
+	}
+	
+	/**
+	 * Gets the text of a token, with quotes and escapes removed
+	 * @param token The index of the token
+	 * @return The text of the token
+	 */
+	public String get(int token) {
+		checkIndex(token);
+		return new String(buffer, starts[token], ends[token] - starts[token]);
+	}
+	
+	/**
+	 * @param token The index of the token
+	 * @return The length of the token, with quotes and escapes removed
+	 */
+	public int length(int token) {
+		checkIndex(token);
+		return ends[token] - starts[token];
+	}
+	
+	/**
+	 * @param token The index of the token
+	 * @param index The index of the character within the token
+	 * @return The character at the given index of the token
+	 */
+	public char charAt(int token, int index) {
+		checkIndex(token);
+		if (index < 0 || index >= ends[token] - starts[token]) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for token of length " + (ends[token] - starts[token]));
+		}
+		return buffer[starts[token] + index];
+	}
+	
+	/**
+	 * @param token The index of the token
+	 * @return Whether the token was closed by a quote
+	 */
+	public boolean isQuoted(int token) {
+		checkIndex(token);
+		return (quoted[token >> 6] & (1L << token)) != 0;
+	}
+	
+	/**
+	 * When tokenizing split arguments, gets which of them a token started in
+	 * @param token The index of the token
+	 * @return The index of the argument the token starts in
+	 */
+	public int getSource(int token) {
+		checkIndex(token);
+		return sources[token];
+	}
+	
+	/**
+	 * @return The text of all tokens
+	 */
+	public String[] toArray() {
+		String[] output = new String[count];
+		for (int i = 0; i < count; i++) {
+			output[i] = get(i);
+		}
+		return output;
+	}
+	
+	private void checkIndex(int token) {
+		if (token < 0 || token >= count) {
+			throw new IndexOutOfBoundsException("Token " + token + " out of bounds for length " + count);
+		}
+	}
+	
+}
@@ -0,0 +1,131 @@
+package redempt.redlib.commandmanager.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A command as it was written in a command file, before its arguments, tags and children have been resolved
+ * into a {@link redempt.redlib.commandmanager.Command}
+ */
+public class CommandNode {
+	
+	private String header;
+	private int line;
+	private int column;
+	private List<Tag> tags = new ArrayList<>();
+	private List<CommandNode> children = new ArrayList<>();
+	
+	/**
+	 * Creates a CommandNode
+	 * @param header The names and arguments of the command, as written before the opening brace
+	 * @param line The line the command starts on, starting from 0
+	 * @param column The column the command starts at, starting from 0
+	 */
+	public CommandNode(String header, int line, int column) {
+		this.header = header;
+		this.line = line;
+		this.column = column;
+	}
+	
+	/**
+	 * Adds a tag to this command
+	 * @param name The name of the tag
+	 * @param value The data of the tag, or null if it has none
+	 * @param line The line the tag is on, starting from 0
+	 * @param column The column the tag starts at, starting from 0
+	 */
+	public void addTag(String name, String value, int line, int column) {
+		tags.add(new Tag(name, value, line, column));
+	}
+	
+	/**
+	 * Adds a subcommand to this command
+	 * @param child The subcommand
+	 */
+	public void addChild(CommandNode child) {
+		children.add(child);
+	}
+	
+	/**
+	 * @return The names and arguments of the command, as written before the opening brace
+	 */
+	public String getHeader() {
+		return header;
+	}
+	
+	/**
+	 * @return The line the command starts on, starting from 0
+	 */
+	public int getLine() {
+		return line;
+	}
+	
+	/**
+	 * @return The column the command starts at, starting from 0
+	 */
+	public int getColumn() {
+		return column;
+	}
+	
+	/**
+	 * @return The tags of this command, in the order they were written
+	 */
+	public List<Tag> getTags() {
+		return tags;
+	}
+	
+	/**
+	 * @return The subcommands of this command, in the order they were written
+	 */
+	public List<CommandNode> getChildren() {
+		return children;
+	}
+	
+	/**
+	 * A tag line within a command, like {@code permission example.use}
+	 */
+	public static class Tag {
+		
+		private String name;
+		private String value;
+		private int line;
+		private int column;
+		
+		private Tag(String name, String value, int line, int column) {
+			this.name = name;
+			this.value = value;
+			this.line = line;
+			this.column = column;
+		}
+		
+		/**
+		 * @return The name of the tag
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return The data of the tag, or null if it has none
+		 */
+		public String getValue() {
+			return value;
+		}
+		
+		/**
+		 * @return The line the tag is on, starting from 0
+		 */
+		public int getLine() {
+			return line;
+		}
+		
+		/**
+		 * @return The column the tag starts at, starting from 0
+		 */
+		public int getColumn() {
+			return column;
+		}
+		
+	}
+	
+}
@@ -5,45 +5,91 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.java.JavaPlugin;
 import redempt.redlib.commandmanager.ArgType;
+import redempt.redlib.commandmanager.ArgType.CompletionScope;
 import redempt.redlib.commandmanager.Command;
+import redempt.redlib.commandmanager.CommandMetrics;
 import redempt.redlib.commandmanager.CommandParser;
 import redempt.redlib.commandmanager.Messages;
+import redempt.redlib.commandmanager.PrimitiveArgType;
+import redempt.redlib.commandmanager.platform.BukkitPlatform;
+import redempt.redlib.commandmanager.platform.CommandPlatform;
 
 import java.lang.reflect.Field;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class CommandProcessUtils {
 	
-	private static Messages globalMessages;
+	private static volatile CommandPlatform platform;
+	private static volatile Messages globalMessages;
 	
-	static {
-		Path path = Paths.get("plugins/RedLib/command-format.txt");
-		globalMessages = Messages.load(CommandParser.class.getClassLoader().getResourceAsStream("command-format.txt"), path);
+	/**
+	 * @return The platform the command manager is running on, which is a {@link BukkitPlatform} unless set otherwise
+	 */
+	public static CommandPlatform getPlatform() {
+		if (platform == null) {
+			synchronized (CommandProcessUtils.class) {
+				if (platform == null) {
+					platform = new BukkitPlatform();
+				}
+			}
+		}
+		return platform;
+	}
+	
+	/**
+	 * Sets the platform the command manager runs on. Should be called before any commands are parsed or registered.
+	 * @param platform The platform to use
+	 */
+	public static synchronized void setPlatform(CommandPlatform platform) {
+		CommandProcessUtils.platform = platform;
+		globalMessages = null;
 	}
 	
 	public static Messages getCommandManagerMessages() {
+		if (globalMessages == null) {
+			synchronized (CommandProcessUtils.class) {
+				if (globalMessages == null) {
+					globalMessages = getPlatform().loadMessages(CommandParser.class.getClassLoader().getResourceAsStream("command-format.txt"));
+				}
+			}
+		}
 		return globalMessages;
 	}
 	
 	public static String msg(String message) {
-		return globalMessages.get(message);
+		return getCommandManagerMessages().get(message);
+	}
+	
+	/**
+	 * Gets one of the command manager's messages with its placeholders filled
+	 * @param message The name of the message
+	 * @param placeholders Alternating placeholder names, without percent signs, and their values
+	 * @return The formatted message
+	 */
+	public static String msg(String message, Object... placeholders) {
+		return getCommandManagerMessages().format(message, placeholders);
+	}
+	
+	/**
+	 * Gets one of the command manager's messages with its placeholders filled
+	 * @param message The name of the message
+	 * @param placeholders A map of placeholder names, without percent signs, to their values
+	 * @return The formatted message
+	 */
+	public static String msg(String message, Map<String, ?> placeholders) {
+		return getCommandManagerMessages().format(message, placeholders);
 	}
 	
 	public static Plugin getCallingPlugin() {
 		Exception ex = new Exception();
 		try {
 			Class<?> clazz = Class.forName(ex.getStackTrace()[2].getClassName());
-			Plugin plugin = JavaPlugin.getProvidingPlugin(clazz);
-			return plugin.isEnabled() ? plugin : Bukkit.getPluginManager().getPlugin(plugin.getName());
+			return getPlatform().getProvidingPlugin(clazz);
 		} catch (ClassNotFoundException e) {
 			e.printStackTrace();
 			return null;
@@ -76,22 +122,13 @@ public class CommandProcessUtils {
 	
 	public static List<ArgType<?>> getBaseArgTypes() {
 		List<ArgType<?>> types = new ArrayList<>();
-		types.add(new ArgType<>("int", (Function<String, Integer>) Integer::parseInt));
-		types.add(new ArgType<>("double", Double::parseDouble));
-		types.add(new ArgType<>("float", Float::parseFloat));
-		types.add(new ArgType<>("long", (Function<String, Long>) Long::parseLong));
+		types.add(new PrimitiveArgType<>("int", int.class, PrimitiveArgType::parseInt));
+		types.add(new PrimitiveArgType<>("double", double.class, PrimitiveArgType::parseDouble));
+		types.add(new PrimitiveArgType<>("float", float.class, PrimitiveArgType::parseFloat));
+		types.add(new PrimitiveArgType<>("long", long.class, PrimitiveArgType::parseLong));
 		types.add(new ArgType<>("string", s -> s));
-		types.add(new ArgType<>("boolean", s -> {
-			switch (s.toLowerCase()) {
-				case "true":
-					return true;
-				case "false":
-					return false;
-				default:
-					return null;
-			}
-		}).tabStream(c -> Stream.of("true", "false")));
-		types.add(new ArgType<Player>("player", (Function<String, Player>) Bukkit::getPlayerExact).tabStream(c -> Bukkit.getOnlinePlayers().stream().map(Player::getName)));
+		types.add(new PrimitiveArgType<>("boolean", boolean.class, PrimitiveArgType::parseBoolean).tabStream(c -> Stream.of("true", "false")).setCompletionScope(CompletionScope.STATIC));
+		types.add(new ArgType<Player>("player", (Function<String, Player>) s -> getPlatform().getPlayer(s)).tabStream(c -> getPlatform().getOnlinePlayers().stream().map(Player::getName)));
 		return types;
 	}
 	
@@ -112,6 +149,23 @@ public class CommandProcessUtils {
 		return argList;
 	}
 	
+	public static boolean startsWithIgnoreCase(String str, String prefix) {
+		return str.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+	
+	public static List<String> filterByPrefix(List<String> completions, String prefix) {
+		if (prefix.isEmpty()) {
+			return completions;
+		}
+		List<String> filtered = new ArrayList<>();
+		for (String completion : completions) {
+			if (startsWithIgnoreCase(completion, prefix)) {
+				filtered.add(completion);
+			}
+		}
+		return filtered;
+	}
+	
 	public static Object[] combine(Object[] first, Object[] second) {
 		Object[] newArr = new Object[first.length + second.length];
 		System.arraycopy(first, 0, newArr, 0, first.length);
@@ -126,50 +180,29 @@ public class CommandProcessUtils {
 		if (type.getParent() != null && pos > 0) {
 			prev = output[pos];
 		}
-		try {
-			return new Result<>(command, Objects.requireNonNull(carg.getType().convert(sender, prev, arg)), null);
-		} catch (Exception e) {
-			return new Result<>(command, null, msg("invalidArgument").replace("%arg%", carg.getName()).replace("%value%", arg));
+		CommandMetrics metrics = command == null ? null : command.getMetrics();
+		long start = metrics == null ? 0 : System.nanoTime();
+		Result<?, String> result = type.tryConvert(sender, prev, arg);
+		if (metrics != null) {
+			metrics.record(CommandMetrics.Stage.CONVERT, type.getName(), System.nanoTime() - start, result.getValue() != null);
 		}
+		if (result.getValue() == null) {
+			return new Result<>(command, null, msg("invalidArgument", "arg", carg.getName(), "value", arg));
+		}
+		return new Result<>(command, result.getValue(), null);
 	}
 	
 	public static Result<String[], Boolean[]> splitArgs(String input) {
-		List<String> args = new ArrayList<>();
-		List<Boolean> quoted = new ArrayList<>();
-		StringBuilder combine = new StringBuilder();
-		boolean quotes = false;
-		char[] chars = input.toCharArray();
-		for (int i = 0; i < chars.length; i++) {
-			char c = chars[i];
-			if (c == '\\' && i + 1 < chars.length) {
-				combine.append(chars[i + 1]);
-				i++;
-				continue;
-			}
-			if (c == '"') {
-				quotes = !quotes;
-				if (combine.length() > 0) {
-					args.add(combine.toString());
-					quoted.add(!quotes);
-					combine = new StringBuilder();
-				}
-				continue;
-			}
-			if (c == ' ' && !quotes) {
-				if (combine.length() > 0) {
-					args.add(combine.toString());
-					quoted.add(false);
-					combine = new StringBuilder();
-				}
-				continue;
+		ArgTokenizer tokens = ArgTokenizer.acquire().tokenize(input);
+		try {
+			Boolean[] quoted = new Boolean[tokens.size()];
+			for (int i = 0; i < quoted.length; i++) {
+				quoted[i] = tokens.isQuoted(i);
 			}
-			combine.append(c);
-		}
-		if (combine.length() > 0) {
-			args.add(combine.toString());
-			quoted.add(false);
+			return new Result<>(null, tokens.toArray(), quoted);
+		} finally {
+			tokens.release();
 		}
-		return new Result<>(null, args.toArray(new String[args.size()]), quoted.toArray(new Boolean[quoted.size()]));
 	}
 	
 }
@@ -3,7 +3,6 @@ package redempt.redlib.commandmanager.processing;
 import org.bukkit.command.CommandSender;
 import redempt.redlib.commandmanager.ArgType;
 
-import java.util.Arrays;
 import java.util.function.Function;
 
 public class Flag {
@@ -14,6 +13,7 @@ public class Flag {
 	private int pos;
 	private Function<CommandSender, Object> defaultValue = null;
 	private boolean contextDefault;
+	private boolean isBoolean;
 	
 	public Flag(ArgType<?> type, String name, int pos, Function<CommandSender, Object> defaultValue, boolean contextDefault) {
 		this.type = type;
@@ -22,6 +22,7 @@ public class Flag {
 		this.pos = pos;
 		this.defaultValue = defaultValue;
 		this.contextDefault = contextDefault;
+		this.isBoolean = type.getName().equals("boolean");
 	}
 	
 	public Object getDefaultValue(CommandSender sender) {
@@ -36,12 +37,25 @@ public class Flag {
 		return type;
 	}
 	
+	public Result<?, String> convert(CommandSender sender, String value) {
+		return type.tryConvert(sender, null, value);
+	}
+	
 	public boolean isContextDefault() {
 		return contextDefault;
 	}
 	
 	public boolean nameMatches(String name) {
-		return Arrays.stream(names).anyMatch(name::equals);
+		for (String alias : names) {
+			if (alias.equals(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public boolean isBoolean() {
+		return isBoolean;
 	}
 	
 	public String getName() {
@@ -54,7 +68,7 @@ public class Flag {
 	
 	@Override
 	public String toString() {
-		return "[" + name + (type.getName().equals("boolean") ? "]" : " " + type.getName() + "]");
+		return "[" + name + (isBoolean ? "]" : " " + type.getName() + "]");
 	}
 	
 }
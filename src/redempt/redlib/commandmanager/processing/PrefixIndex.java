@@ -0,0 +1,82 @@
+package redempt.redlib.commandmanager.processing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A sorted, case-insensitive index of strings which can quickly find all strings starting with a prefix.
+ * Used to provide tab completions without lowercasing and filtering every candidate on each keystroke.
+ * Matches are returned in the order the values were given, so deliberately ordered values like enum constants
+ * keep their order.
+ */
+public class PrefixIndex {
+	
+	private final String[] keys;
+	private final int[] order;
+	private final String[] values;
+	
+	/**
+	 * Creates a PrefixIndex over a fixed set of values
+	 * @param values The values to index
+	 */
+	public PrefixIndex(Collection<String> values) {
+		this.values = values.toArray(new String[0]);
+		String[] lower = new String[this.values.length];
+		Integer[] sorted = new Integer[lower.length];
+		for (int i = 0; i < lower.length; i++) {
+			lower[i] = this.values[i].toLowerCase(Locale.ROOT);
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, (a, b) -> lower[a].compareTo(lower[b]));
+		keys = new String[sorted.length];
+		order = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			keys[i] = lower[sorted[i]];
+			order[i] = sorted[i];
+		}
+	}
+	
+	/**
+	 * Finds all values starting with a prefix, ignoring case
+	 * @param prefix The prefix
+	 * @return An unmodifiable list of the matching values, in the order they were given
+	 */
+	public List<String> complete(String prefix) {
+		String lower = prefix.toLowerCase(Locale.ROOT);
+		int start = 0;
+		int high = keys.length;
+		while (start < high) {
+			int mid = (start + high) >>> 1;
+			if (keys[mid].compareTo(lower) < 0) {
+				start = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int end = start;
+		while (end < keys.length && keys[end].startsWith(lower)) {
+			end++;
+		}
+		if (start == end) {
+			return Collections.emptyList();
+		}
+		int[] matches = Arrays.copyOfRange(order, start, end);
+		Arrays.sort(matches);
+		String[] found = new String[matches.length];
+		for (int i = 0; i < matches.length; i++) {
+			found[i] = values[matches[i]];
+		}
+		return Collections.unmodifiableList(Arrays.asList(found));
+	}
+	
+	/**
+	 * @return An unmodifiable list of all indexed values, in the order they were given
+	 */
+	public List<String> getValues() {
+		return Collections.unmodifiableList(Arrays.asList(values));
+	}
+	
+}
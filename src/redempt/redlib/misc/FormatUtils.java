@@ -4,11 +4,10 @@ import org.bukkit.ChatColor;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Contains utilities for formatting various information
@@ -68,7 +67,37 @@ public class FormatUtils {
 		return format.format(input);
 	}
 	
-	private static Set<Character> colorChars = "4c6e2ab319d5f780rlonmk".chars().mapToObj(i -> (char) i).collect(Collectors.toSet());
+	private static final int CACHE_SIZE = 1024;
+	private static final int MAX_CACHED_LENGTH = 256;
+	
+	private static boolean[] colorChars = new boolean[128];
+	private static char[] hexDigits = new char[128];
+	private static Map<String, String> colorCache = createColorCache();
+	private static Map<String, String> colorCacheNoHex = createColorCache();
+	
+	static {
+		for (char c : "4c6e2ab319d5f780rlonmk".toCharArray()) {
+			colorChars[c] = true;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			hexDigits[c] = c;
+		}
+		for (char c = 'A'; c <= 'F'; c++) {
+			hexDigits[c] = c;
+			hexDigits[Character.toLowerCase(c)] = c;
+		}
+	}
+	
+	private static Map<String, String> createColorCache() {
+		return Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > CACHE_SIZE;
+			}
+			
+		});
+	}
 	
 	/**
 	 * Shorthand for {@link ChatColor#translateAlternateColorCodes(char, String)} which also formats hex color codes
@@ -86,39 +115,95 @@ public class FormatUtils {
 	 * @return The colored string, replacing color codes using ampersands with proper codes
 	 */
 	public static String color(String input, boolean hex) {
-		StringBuilder builder = new StringBuilder();
-		for (int i = 0; i < input.length(); i++) {
+		int length = input.length();
+		int first = 0;
+		while (first < length) {
+			char c = input.charAt(first);
+			if (c == '&' || c == '\\') {
+				break;
+			}
+			first++;
+		}
+		if (first == length) {
+			return input;
+		}
+		// A hex code is the only thing which grows, turning 8 characters into 14
+		char[] out = new char[hex ? length + (length >> 1) + (length >> 2) + 1 : length];
+		input.getChars(0, first, out, 0);
+		int pos = first;
+		for (int i = first; i < length; i++) {
 			char c = input.charAt(i);
-			if (i + 1 >= input.length()) {
-				builder.append(c);
+			if (i + 1 >= length) {
+				out[pos++] = c;
 				continue;
 			}
 			char n = input.charAt(i + 1);
 			if (c == '\\' && (n == '&' || n == '\\')) {
 				i++;
-				builder.append(n);
+				out[pos++] = n;
 				continue;
 			}
 			if (c != '&') {
-				builder.append(c);
+				out[pos++] = c;
 				continue;
 			}
-			if (colorChars.contains(n)) {
-				builder.append(ChatColor.COLOR_CHAR);
+			if (n < 128 && colorChars[n]) {
+				out[pos++] = ChatColor.COLOR_CHAR;
 				continue;
 			}
-			if (hex && n == '#' && i + 7 <= input.length()) {
-				String hexCode = input.substring(i + 2, i + 8).toUpperCase(Locale.ROOT);
-				if (hexCode.chars().allMatch(ch -> (ch <= '9' && ch >= '0') || (ch <= 'F' && ch >= 'A'))) {
-					hexCode = Arrays.stream(hexCode.split("")).map(s -> ChatColor.COLOR_CHAR + s).collect(Collectors.joining());
-					builder.append(ChatColor.COLOR_CHAR).append("x").append(hexCode);
-					i += 7;
-					continue;
+			if (hex && n == '#' && i + 8 <= length && isHexCode(input, i + 2)) {
+				out[pos++] = ChatColor.COLOR_CHAR;
+				out[pos++] = 'x';
+				for (int j = i + 2; j < i + 8; j++) {
+					out[pos++] = ChatColor.COLOR_CHAR;
+					out[pos++] = hexDigits[input.charAt(j)];
 				}
+				i += 7;
+				continue;
 			}
-			builder.append(c);
+			out[pos++] = c;
+		}
+		return new String(out, 0, pos);
+	}
+	
+	private static boolean isHexCode(String input, int start) {
+		for (int i = start; i < start + 6; i++) {
+			char c = input.charAt(i);
+			if (c >= 128 || hexDigits[c] == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Colors a string the same way as {@link #color(String)}, but remembers the results for recently colored strings.
+	 * Useful for strings which are colored repeatedly, like scoreboard lines and chat formats.
+	 * @param input The input string
+	 * @return The colored string, replacing color codes using ampersands with proper codes
+	 */
+	public static String colorCached(String input) {
+		return colorCached(input, true);
+	}
+	
+	/**
+	 * Colors a string the same way as {@link #color(String, boolean)}, but remembers the results for recently colored
+	 * strings. Only the most recently used strings are kept, and long strings are not cached.
+	 * @param input The input string
+	 * @param hex Whether to translate hex color codes for 1.16+ (format: {@literal &#FF0000})
+	 * @return The colored string, replacing color codes using ampersands with proper codes
+	 */
+	public static String colorCached(String input, boolean hex) {
+		if (input.length() > MAX_CACHED_LENGTH) {
+			return color(input, hex);
+		}
+		Map<String, String> cache = hex ? colorCache : colorCacheNoHex;
+		String colored = cache.get(input);
+		if (colored == null) {
+			colored = color(input, hex);
+			cache.put(input, colored);
 		}
-		return builder.toString();
+		return colored;
 	}
 	
 	/**
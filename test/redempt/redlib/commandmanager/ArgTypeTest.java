@@ -0,0 +1,38 @@
+package redempt.redlib.commandmanager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArgTypeTest {
+	
+	@Test
+	public void enumConvertsByName() {
+		ArgType<Level> type = ArgType.of("level", Level.class);
+		assertEquals(Level.MEDIUM, type.convert(null, null, "MEDIUM"));
+		assertNull(type.convert(null, null, "medium"));
+		assertNull(type.convert(null, null, "none"));
+	}
+	
+	@Test
+	public void enumCompletesInDeclarationOrder() {
+		ArgType<Level> type = ArgType.of("level", Level.class);
+		assertEquals(Arrays.asList("LOW", "MEDIUM", "HIGH"), type.tabComplete(null, new String[] {""}, null, ""));
+	}
+	
+	@Test
+	public void stringsCompleteInDeclarationOrder() {
+		ArgType<String> type = ArgType.of("size", "small", "mega", "Medium", "large");
+		assertEquals(Arrays.asList("mega", "Medium"), type.tabComplete(null, new String[] {"M"}, null, "M"));
+	}
+	
+	public enum Level {
+		
+		LOW, MEDIUM, HIGH
+		
+	}
+	
+}
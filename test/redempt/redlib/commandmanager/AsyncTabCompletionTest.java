@@ -0,0 +1,66 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.Test;
+import redempt.redlib.commandmanager.platform.InMemoryPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncTabCompletionTest {
+	
+	@Test
+	public void awaitReturnsCompletions() {
+		AsyncTabCompletion asyncTab = new AsyncTabCompletion(1, 1, 1000);
+		assertEquals(Arrays.asList("a", "b"), asyncTab.await(asyncTab.complete(() -> Arrays.asList("a", "b"))));
+		asyncTab.shutdown();
+	}
+	
+	@Test
+	public void awaitInterruptsCompleterPastDeadline() throws InterruptedException {
+		AsyncTabCompletion asyncTab = new AsyncTabCompletion(1, 1, 20);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		assertEquals(Collections.emptyList(), asyncTab.await(asyncTab.complete(() -> {
+			try {
+				Thread.sleep(10000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return Collections.singletonList("late");
+		})));
+		assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+		asyncTab.shutdown();
+	}
+	
+	@Test
+	public void listenCompletesOnEventThread() {
+		InMemoryPlatform platform = new InMemoryPlatform();
+		CommandProcessUtils.setPlatform(platform);
+		Plugin plugin = platform.createPlugin("Test");
+		CommandSender sender = platform.createSender("Tester", p -> true, m -> {});
+		// Completions are computed on the thread delivering the event, so the executor is never used
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+		AsyncTabCompletion asyncTab = new AsyncTabCompletion(executor, 1000);
+		String file = "home {\n\thook home\n\tset {\n\t\thook home\n\t}\n}";
+		new CommandParser(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8))).parse()
+				.setAsyncTab(asyncTab).register(plugin, "test", new CommandCollectionTest.Listener());
+		assertEquals(Collections.singletonList("set"), platform.asyncTabComplete(sender, "/test:home s"));
+		assertNull(platform.asyncTabComplete(sender, "/other s"));
+		platform.disable(plugin);
+		assertNull(platform.asyncTabComplete(sender, "/home s"));
+	}
+	
+}
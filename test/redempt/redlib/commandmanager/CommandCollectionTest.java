@@ -0,0 +1,131 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.Plugin;
+import org.junit.Before;
+import org.junit.Test;
+import redempt.redlib.commandmanager.platform.InMemoryPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommandCollectionTest {
+	
+	private InMemoryPlatform platform;
+	private Plugin plugin;
+	private CommandSender sender;
+	private List<String> messages = new ArrayList<>();
+	
+	@Before
+	public void setUp() {
+		platform = new InMemoryPlatform();
+		CommandProcessUtils.setPlatform(platform);
+		plugin = platform.createPlugin("Test");
+		sender = platform.createSender("Tester", p -> true, messages::add);
+	}
+	
+	@Test
+	public void reloadRenamesAlias() throws Exception {
+		CommandCollection commands = parse("home,h {\n\thook home\n}");
+		commands.register(plugin, "test", new Listener());
+		reload(commands, "home,hm {\n\thook home\n}");
+		assertTrue(platform.dispatch(sender, "home"));
+		assertTrue(platform.dispatch(sender, "hm"));
+		assertTrue(platform.dispatch(sender, "test:hm"));
+		assertFalse(platform.dispatch(sender, "h"));
+		assertFalse(platform.dispatch(sender, "test:h"));
+		assertEquals(3, messages.size());
+	}
+	
+	@Test
+	public void reloadRenamesCommand() throws Exception {
+		CommandCollection commands = parse("home,h {\n\thook home\n}");
+		commands.register(plugin, "test", new Listener());
+		reload(commands, "house,h {\n\thook home\n}");
+		assertFalse(platform.dispatch(sender, "home"));
+		assertTrue(platform.dispatch(sender, "house"));
+		assertTrue(platform.dispatch(sender, "h"));
+		assertEquals(2, messages.size());
+	}
+	
+	@Test
+	public void disableUnregistersReloadedLabels() throws Exception {
+		CommandCollection commands = parse("home {\n\thook home\n}");
+		commands.register(plugin, "test", new Listener());
+		reload(commands, "home,hm {\n\thook home\n}");
+		platform.disable(plugin);
+		assertFalse(platform.dispatch(sender, "home"));
+		assertFalse(platform.dispatch(sender, "hm"));
+		assertFalse(platform.dispatch(sender, "test:hm"));
+	}
+	
+	@Test
+	public void reloadsSwapInRequestOrder() throws Exception {
+		CommandCollection commands = parse("home {\n\thook home\n}");
+		commands.register(plugin, "test", new Listener());
+		CountDownLatch parsing = new CountDownLatch(1);
+		InputStream older = new FilterInputStream(stream("home,old {\n\thook home\n}")) {
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				try {
+					parsing.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				return super.read(b, off, len);
+			}
+		};
+		CompletableFuture<Void> first = commands.reload(new CommandParser(older));
+		await(commands.reload(parser("home,new {\n\thook home\n}")));
+		parsing.countDown();
+		await(first);
+		assertTrue(platform.dispatch(sender, "new"));
+		assertFalse(platform.dispatch(sender, "old"));
+	}
+	
+	private void reload(CommandCollection commands, String file) throws Exception {
+		await(commands.reload(parser(file)));
+	}
+	
+	private void await(CompletableFuture<Void> future) throws Exception {
+		while (!future.isDone()) {
+			platform.runTasks();
+			Thread.sleep(1);
+		}
+		future.get();
+	}
+	
+	private static CommandCollection parse(String file) {
+		return parser(file).parse();
+	}
+	
+	private static CommandParser parser(String file) {
+		return new CommandParser(stream(file));
+	}
+	
+	private static InputStream stream(String file) {
+		return new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static class Listener {
+		
+		@CommandHook("home")
+		public void home(CommandSender sender) {
+			sender.sendMessage("home");
+		}
+		
+	}
+	
+}
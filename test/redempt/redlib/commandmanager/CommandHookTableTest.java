@@ -0,0 +1,37 @@
+package redempt.redlib.commandmanager;
+
+import org.junit.Test;
+import redempt.redlib.commandmanager.CommandHookTable.Hook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CommandHookTableTest {
+	
+	@Test
+	public void numberWidens() {
+		assertEquals(5L, Hook.number(5, long.class).longValue());
+		assertEquals(97, Hook.number('a', int.class).intValue());
+		assertEquals(2.0, Hook.number(2f, double.class).doubleValue(), 0);
+	}
+	
+	@Test
+	public void numberDoesNotNarrow() {
+		try {
+			Hook.number(5L, int.class);
+			fail("Long should not be passed as int");
+		} catch (ClassCastException e) {
+		}
+		try {
+			Hook.number(1.5, float.class);
+			fail("Double should not be passed as float");
+		} catch (ClassCastException e) {
+		}
+	}
+	
+	@Test(expected = NullPointerException.class)
+	public void numberRejectsNull() {
+		Hook.number(null, int.class);
+	}
+	
+}
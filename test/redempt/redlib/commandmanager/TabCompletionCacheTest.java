@@ -0,0 +1,51 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.command.CommandSender;
+import org.junit.Before;
+import org.junit.Test;
+import redempt.redlib.commandmanager.ArgType.CompletionScope;
+import redempt.redlib.commandmanager.platform.InMemoryPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class TabCompletionCacheTest {
+	
+	private InMemoryPlatform platform;
+	private CommandSender sender;
+	
+	@Before
+	public void setUp() {
+		platform = new InMemoryPlatform();
+		CommandProcessUtils.setPlatform(platform);
+		sender = platform.createSender("Tester", p -> true, m -> {});
+	}
+	
+	@Test
+	public void subtypeOfPostArgChildIsKeyedByParentValue() {
+		ArgType<String> team = new ArgType<>("team", s -> s);
+		ArgType<String> member = team.<String>subType("member", (s, t) -> s)
+				.tab((sender, prev, t) -> Arrays.asList(t + "1", t + "2"))
+				.setCompletionScope(CompletionScope.STATIC);
+		String file = "team team:t {\n\tmembers member:m {\n\t\tpostarg\n\t\thook members\n\t}\n}";
+		CommandCollection commands = new CommandParser(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)))
+				.setArgTypes(team, member).parse();
+		commands.setTabCache(new TabCompletionCache(60000, 100));
+		commands.register(platform.createPlugin("Test"), "test", new Listener());
+		assertEquals(Arrays.asList("red1", "red2"), platform.tabComplete(sender, "team red members "));
+		assertEquals(Arrays.asList("blue1", "blue2"), platform.tabComplete(sender, "team blue members "));
+	}
+	
+	public static class Listener {
+		
+		@CommandHook("members")
+		public void members(CommandSender sender, String team, String member) {
+		}
+		
+	}
+	
+}
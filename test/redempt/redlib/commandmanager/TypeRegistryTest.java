@@ -0,0 +1,46 @@
+package redempt.redlib.commandmanager;
+
+import org.bukkit.plugin.Plugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redempt.redlib.commandmanager.platform.InMemoryPlatform;
+import redempt.redlib.commandmanager.processing.CommandProcessUtils;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TypeRegistryTest {
+	
+	private Plugin plugin;
+	
+	@Before
+	public void setUp() {
+		InMemoryPlatform platform = new InMemoryPlatform();
+		CommandProcessUtils.setPlatform(platform);
+		plugin = platform.createPlugin("My.Plugin");
+	}
+	
+	@After
+	public void tearDown() {
+		TypeRegistry.unregister(plugin);
+	}
+	
+	@Test
+	public void qualifiedNameWithPeriodInPluginName() {
+		ArgType<String> type = new ArgType<>("region", Function.identity());
+		TypeRegistry.registerArgTypes(plugin, type);
+		assertSame(type, TypeRegistry.getArgType(null, "my.plugin.region"));
+		assertNull(TypeRegistry.getArgType(null, "my.region"));
+	}
+	
+	@Test
+	public void qualifiedProviderWithPeriodInPluginName() {
+		ContextProvider<String> provider = new ContextProvider<>("world", p -> "world");
+		TypeRegistry.registerContextProviders(plugin, provider);
+		assertSame(provider, TypeRegistry.getContextProvider(null, "my.plugin.world"));
+	}
+	
+}
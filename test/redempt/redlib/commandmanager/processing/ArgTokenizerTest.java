@@ -0,0 +1,43 @@
+package redempt.redlib.commandmanager.processing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArgTokenizerTest {
+	
+	@Test
+	public void acquireReusesReleasedTokenizer() {
+		ArgTokenizer first = ArgTokenizer.acquire();
+		ArgTokenizer nested = ArgTokenizer.acquire();
+		assertTrue(first != nested);
+		nested.release();
+		first.release();
+		ArgTokenizer again = ArgTokenizer.acquire();
+		assertTrue(first == again);
+		again.release();
+	}
+	
+	@Test
+	public void moveKeepsQuotedState() {
+		ArgTokenizer tokens = new ArgTokenizer().tokenize("-f \"a b\" c");
+		tokens.move(1, 0);
+		tokens.move(2, 1);
+		assertEquals("a b", tokens.get(0));
+		assertTrue(tokens.isQuoted(0));
+		assertEquals("c", tokens.get(1));
+		assertFalse(tokens.isQuoted(1));
+	}
+	
+	@Test
+	public void appendToMatchesGet() {
+		ArgTokenizer tokens = new ArgTokenizer().tokenize(new String[] {"one", "\"two", "three\""});
+		StringBuilder builder = new StringBuilder();
+		tokens.appendTo(1, builder);
+		assertEquals(tokens.get(1), builder.toString());
+		assertEquals("two three", builder.toString());
+	}
+	
+}